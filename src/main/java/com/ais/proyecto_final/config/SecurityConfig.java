@@ -53,6 +53,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 .authorizeHttpRequests(authorize -> authorize
+                        // revocar un token ajeno exige estar autenticado
+                        .requestMatchers(HttpMethod.POST, "/api/auth/revoke").authenticated()
+
                         // reglas de acceso público
                         .requestMatchers(
                                 "/api/auth/**",
@@ -0,0 +1,55 @@
+package com.ais.proyecto_final.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Con {@code spring.threads.virtual.enabled=true} (perfil "virtual", requiere Java 21) Tomcat atiende cada
+ * petición en un hilo virtual. Aquí se envuelve el DataSource para que la concurrencia contra la base de
+ * datos siga acotada al tamaño del pool de Hikari. En Java 17 Spring ignora la propiedad y Tomcat sigue
+ * con su pool de plataforma, así que tampoco se envuelve el DataSource.
+ */
+@Configuration
+@ConditionalOnJava(JavaVersion.TWENTY_ONE)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    @Bean
+    static BeanPostProcessor jdbcConcurrencyLimiter(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                int maxConcurrency = environment.getProperty("app.jdbc.max-concurrency", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                long acquireTimeoutMs = environment.getProperty("app.jdbc.acquire-timeout-ms", Long.class, 30000L);
+
+                ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeoutMs);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("jdbc.limiter.available", limited, ConcurrencyLimitedDataSource::availablePermits)
+                            .tag("name", beanName).register(registry);
+                    Gauge.builder("jdbc.limiter.waiting", limited, ConcurrencyLimitedDataSource::queueLength)
+                            .tag("name", beanName).register(registry);
+                });
+                log.info("DataSource {} limitado a {} conexiones concurrentes (hilos virtuales activos)", beanName, maxConcurrency);
+                return limited;
+            }
+        };
+    }
+}
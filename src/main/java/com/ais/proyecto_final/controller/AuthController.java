@@ -2,19 +2,29 @@ package com.ais.proyecto_final.controller;
 
 import com.ais.proyecto_final.dto.auth.LoginRequestDTO;
 import com.ais.proyecto_final.dto.auth.LoginResponseDTO;
+import com.ais.proyecto_final.dto.auth.RevokeTokenRequestDTO;
 import com.ais.proyecto_final.security.JwtTokenProvider;
+import com.ais.proyecto_final.security.LoginExecutor;
+import com.ais.proyecto_final.security.LoginThrottle;
+import com.ais.proyecto_final.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -22,20 +32,48 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationList tokenRevocationList;
+    private final LoginThrottle loginThrottle;
+    private final LoginExecutor loginExecutor;
 
+    // la verificación de la contraseña corre en el pool de login, no en el hilo de Tomcat;
+    // el throttle rechaza antes de encolar nada
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDTO> authenticateUser(@RequestBody @Valid LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<LoginResponseDTO>> authenticateUser(
+            @RequestBody @Valid LoginRequestDTO loginRequest, HttpServletRequest request) {
+
+        loginThrottle.acquire(loginRequest.getUsername(), request.getRemoteAddr());
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
+        return loginExecutor.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getUsername(),
+                            loginRequest.getPassword()
+                    )
+            );
+
+            String jwt = tokenProvider.generateToken(authentication);
+            return ResponseEntity.ok(new LoginResponseDTO(jwt));
+        });
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (StringUtils.hasText(authorization) && authorization.startsWith("Bearer ")) {
+            tokenProvider.parseClaims(authorization.substring(7)).ifPresent(this::revoke);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revokeToken(@RequestBody @Valid RevokeTokenRequestDTO revokeRequest) {
+        Claims claims = tokenProvider.parseClaims(revokeRequest.getToken())
+                .orElseThrow(() -> new BadCredentialsException("Token no válido o expirado"));
+        revoke(claims);
+        return ResponseEntity.noContent().build();
+    }
 
-        return ResponseEntity.ok(new LoginResponseDTO(jwt));
+    private void revoke(Claims claims) {
+        tokenRevocationList.revoke(claims.getId(), claims.getSubject(), claims.getExpiration());
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,14 @@ package com.ais.proyecto_final.controller;
 
 import com.ais.proyecto_final.dto.customer.AddressRequestDTO;
 import com.ais.proyecto_final.dto.customer.AddressResponseDTO;
+import com.ais.proyecto_final.dto.customer.CustomerImportProgressDTO;
 import com.ais.proyecto_final.dto.customer.CustomerRequestDTO;
 import com.ais.proyecto_final.dto.customer.CustomerResponseDTO;
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.service.customer.CustomerImportService;
 import com.ais.proyecto_final.service.customer.CustomerService;
+import com.ais.proyecto_final.service.importing.ImportFormat;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
@@ -14,6 +19,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
 
 @RestController
 @RequestMapping("/api/customers")
@@ -21,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
 
     @PostMapping
     public ResponseEntity<CustomerResponseDTO> createCustomer(@RequestBody @Valid CustomerRequestDTO customerRequest) {
@@ -28,6 +38,20 @@ public class CustomerController {
         return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
     }
 
+    // NDJSON leído en streaming; con el mismo jobId un envío cortado continúa desde el último checkpoint
+    @PostMapping(value = "/import", consumes = ImportFormat.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResultDTO> importCustomers(@RequestParam(required = false) String jobId,
+                                                           HttpServletRequest request) throws IOException {
+        ImportResultDTO result = customerImportService.importCustomers(jobId,
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<CustomerImportProgressDTO> getImportProgress(@PathVariable String jobId) {
+        return ResponseEntity.ok(customerImportService.getProgress(jobId));
+    }
+
     @GetMapping
     public ResponseEntity<Page<CustomerResponseDTO>> getAllCustomers(
             @RequestParam(required = false) String email,
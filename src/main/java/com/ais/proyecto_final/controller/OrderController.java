@@ -1,18 +1,26 @@
 package com.ais.proyecto_final.controller;
 
+import com.ais.proyecto_final.dto.order.BulkOrderStatusResultDTO;
+import com.ais.proyecto_final.dto.order.BulkOrderStatusUpdateDTO;
+import com.ais.proyecto_final.dto.order.OrderCursorPageDTO;
 import com.ais.proyecto_final.dto.order.OrderRequestDTO;
 import com.ais.proyecto_final.dto.order.OrderResponseDTO;
 import com.ais.proyecto_final.dto.order.OrderStatusUpdateDTO;
 import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.service.idempotency.IdempotencyService;
 import com.ais.proyecto_final.service.order.OrderService;
+import com.ais.proyecto_final.service.order.OrderStatusStream;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 
@@ -21,10 +29,16 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class OrderController {
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderStatusStream orderStatusStream;
 
     @PostMapping
-    public ResponseEntity<OrderResponseDTO> createOrder(@RequestBody @Valid OrderRequestDTO orderRequest) {
-        OrderResponseDTO createdOrder = orderService.createOrder(orderRequest);
+    public ResponseEntity<OrderResponseDTO> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid OrderRequestDTO orderRequest) {
+        OrderResponseDTO createdOrder = StringUtils.hasText(idempotencyKey)
+                ? idempotencyService.createOrder(idempotencyKey.trim(), orderRequest)
+                : orderService.createOrder(orderRequest);
         return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
     }
 
@@ -40,6 +54,26 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<OrderCursorPageDTO> scrollOrders(
+            @RequestParam(required = false) Long customerId,
+            @RequestParam(required = false) LocalDate fromDate,
+            @RequestParam(required = false) LocalDate toDate,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(orderService.scrollOrders(customerId, fromDate, toDate, status, cursor, size));
+    }
+
+    // cambios de estado en tiempo real (SSE); al reconectar el navegador envía Last-Event-ID
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) OrderStatus status) {
+        return orderStatusStream.subscribe(lastEventId, status);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderById(id));
@@ -52,4 +86,10 @@ public class OrderController {
         OrderResponseDTO updated = orderService.updateOrderStatus(id, dto);
         return ResponseEntity.ok(updated);
     }
+
+    // cambio de estado de varios pedidos; el resultado indica qué ha pasado con cada id
+    @PutMapping("/status")
+    public ResponseEntity<BulkOrderStatusResultDTO> bulkUpdateOrderStatus(@RequestBody @Valid BulkOrderStatusUpdateDTO dto) {
+        return ResponseEntity.ok(orderService.bulkUpdateOrderStatus(dto));
+    }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.ais.proyecto_final.controller;
 
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
 import com.ais.proyecto_final.dto.product.ProductRequestDTO;
 import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.ais.proyecto_final.dto.product.ProductSuggestionDTO;
+import com.ais.proyecto_final.service.importing.ImportFormat;
+import com.ais.proyecto_final.service.product.ProductImportService;
 import com.ais.proyecto_final.service.product.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
@@ -12,33 +17,62 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/products")
 @AllArgsConstructor
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+
     @PostMapping
     public ResponseEntity<ProductResponseDTO> createProduct(@RequestBody @Valid ProductRequestDTO productRequest) {
         ProductResponseDTO createdProduct = productService.createProduct(productRequest);
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    // el cuerpo se lee en streaming desde la petición: no se guarda el fichero ni en memoria ni en disco
+    @PostMapping(value = "/import", consumes = {ImportFormat.TEXT_CSV_VALUE, ImportFormat.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResultDTO> importProducts(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        ImportResultDTO result = productImportService.importProducts(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), format);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping
     public ResponseEntity<Page<ProductResponseDTO>> getAllProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "true") boolean includeDescription,
             @ParameterObject Pageable pageable) {
 
-        Page<ProductResponseDTO> products = productService.findAllProducts(name, active, pageable);
+        Page<ProductResponseDTO> products = productService.findAllProducts(name, active, includeDescription, pageable);
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductSuggestionDTO>> autocomplete(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.autocomplete(prefix, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<ProductResponseDTO> getProductBySku(@PathVariable String sku) {
+        return ResponseEntity.ok(productService.getProductBySku(sku));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> updateProduct(@PathVariable Long id, @RequestBody @Valid ProductRequestDTO dto) {
         ProductResponseDTO updated = productService.updateProduct(id, dto);
@@ -0,0 +1,15 @@
+package com.ais.proyecto_final.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokeTokenRequestDTO {
+
+    @NotBlank
+    private String token;
+}
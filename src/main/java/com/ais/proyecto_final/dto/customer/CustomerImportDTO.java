@@ -0,0 +1,22 @@
+package com.ais.proyecto_final.dto.customer;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+/*
+Una línea del NDJSON de POST /api/customers/import:
+{"fullName": "Ana García", "email": "ana.garcia@test.com", "phone": "600111222",
+ "addresses": [{"line1": "C/ Mayor 1", "city": "Madrid", "postalCode": "28001", "country": "ES", "defaultAddress": true}]}
+*/
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class CustomerImportDTO extends CustomerRequestDTO {
+
+    @Valid
+    @Size(max = 20, message = "Un cliente no puede tener más de 20 direcciones")
+    private List<AddressRequestDTO> addresses;
+}
@@ -0,0 +1,41 @@
+package com.ais.proyecto_final.dto.customer;
+
+import com.ais.proyecto_final.entity.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+{
+  "jobId": "crm-2025-09",
+  "status": "RUNNING",
+  "committedLine": 120500,
+  "rows": 120500,
+  "created": 120310,
+  "failed": 190,
+  "rowsPerSecond": 4180.5,
+  "startedAt": "2025-09-15T10:00:00",
+  "updatedAt": "2025-09-15T10:00:29",
+  "finishedAt": null
+}
+*/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportProgressDTO {
+    private String jobId;
+    private ImportStatus status;
+    private long committedLine;
+    private long rows;
+    private long created;
+    private long failed;
+    // ritmo de la ejecución actual (o de la última), sin contar el tiempo que el job estuvo parado
+    private double rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,43 @@
+package com.ais.proyecto_final.dto.importing;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+{
+  "rows": 400000,
+  "created": 398500,
+  "updated": 1400,
+  "duplicates": 80,
+  "failed": 20,
+  "errors": [ {"line": 42, "key": "SKU-0042", "message": "price: El precio debe ser mayor que cero"} ],
+  "errorsTruncated": false,
+  "elapsedMs": 61234
+}
+*/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    // solo en las importaciones reanudables: job y línea desde la que se ha continuado
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String jobId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long resumedFromLine;
+    private long rows;
+    private long created;
+    private long updated;
+    // filas con una clave repetida dentro del mismo lote: gana la última, las anteriores no se escriben
+    private long duplicates;
+    private long failed;
+    private List<ImportRowErrorDTO> errors;
+    // true si hubo más errores de los que se devuelven (app.import.max-errors)
+    private boolean errorsTruncated;
+    private long elapsedMs;
+}
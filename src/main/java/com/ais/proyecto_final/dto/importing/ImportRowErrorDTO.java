@@ -0,0 +1,25 @@
+package com.ais.proyecto_final.dto.importing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+{
+  "line": 42,
+  "key": "SKU-0042",
+  "message": "price: El precio debe ser mayor que cero"
+}
+*/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDTO {
+    // línea del fichero donde empieza el registro (la cabecera del CSV es la 1)
+    private long line;
+    // sku o email de la fila, si se pudo leer
+    private String key;
+    private String message;
+}
@@ -0,0 +1,40 @@
+package com.ais.proyecto_final.dto.order;
+
+import com.ais.proyecto_final.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+/* {
+  "status": "SHIPPED",
+  "updated": 2,
+  "results": [
+    { "orderId": 10, "outcome": "UPDATED", "previousStatus": "PAID" },
+    { "orderId": 11, "outcome": "INVALID_TRANSITION", "previousStatus": "CREATED", "message": "..." },
+    { "orderId": 12, "outcome": "NOT_FOUND" }
+  ]
+} */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResultDTO {
+    private OrderStatus status;
+    private int updated;
+    private List<Item> results;
+
+    public enum Outcome { UPDATED, UNCHANGED, NOT_FOUND, INVALID_TRANSITION }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long orderId;
+        private Outcome outcome;
+        private OrderStatus previousStatus;
+        private String message;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ais.proyecto_final.dto.order;
+
+import com.ais.proyecto_final.entity.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+/* {
+  "orderIds": [10, 11, 12],
+  "status": "SHIPPED"
+} */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusUpdateDTO {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull Long> orderIds;
+    @NotNull
+    private OrderStatus status;
+}
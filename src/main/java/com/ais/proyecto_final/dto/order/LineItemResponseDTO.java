@@ -1,11 +1,15 @@
 package com.ais.proyecto_final.dto.order;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class LineItemResponseDTO {
     private Long productId;
     private Integer quantity;
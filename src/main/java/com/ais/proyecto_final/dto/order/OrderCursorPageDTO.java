@@ -0,0 +1,22 @@
+package com.ais.proyecto_final.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+/* {
+  "content": [ { "id": 10, ... } ],
+  "nextCursor": "MjAyNS0wOS0xNVQxMDoxMjozMHwxMA",
+  "hasNext": true
+} */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCursorPageDTO {
+    private List<OrderResponseDTO> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
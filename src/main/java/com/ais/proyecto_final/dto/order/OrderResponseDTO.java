@@ -1,8 +1,10 @@
 package com.ais.proyecto_final.dto.order;
 
 import com.ais.proyecto_final.entity.OrderStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,6 +23,8 @@ import java.util.List;
 } */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class OrderResponseDTO {
     private Long id;
     private LocalDateTime orderDate;
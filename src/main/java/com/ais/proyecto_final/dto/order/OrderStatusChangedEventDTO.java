@@ -0,0 +1,28 @@
+package com.ais.proyecto_final.dto.order;
+
+import com.ais.proyecto_final.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/* {
+  "orderId": 10,
+  "customerId": 1,
+  "previousStatus": "CREATED",
+  "status": "PAID",
+  "changedAt": "2025-09-15T10:12:30"
+} */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangedEventDTO {
+    private Long orderId;
+    private Long customerId;
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    private LocalDateTime changedAt;
+}
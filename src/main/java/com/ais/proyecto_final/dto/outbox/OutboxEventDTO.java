@@ -0,0 +1,31 @@
+package com.ais.proyecto_final.dto.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/* {
+  "id": 120,
+  "aggregateType": "Order",
+  "aggregateId": 10,
+  "eventType": "OrderStatusChanged",
+  "payload": { "orderId": 10, "previousStatus": "CREATED", "status": "PAID", ... },
+  "createdAt": "2025-09-15T10:12:30"
+} */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventDTO {
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private String eventType;
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -1,12 +1,17 @@
 package com.ais.proyecto_final.dto.product;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+// el orden de los campos es el del constructor que usa ProductRepositoryCustomImpl.findSummaries
+@AllArgsConstructor
 public class ProductResponseDTO {
     private Long id;
     private String sku;
@@ -0,0 +1,23 @@
+package com.ais.proyecto_final.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+{
+  "id": 12,
+  "sku": "TEC-MEC-01",
+  "name": "Teclado mecánico"
+}
+*/
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestionDTO {
+    private Long id;
+    private String sku;
+    private String name;
+}
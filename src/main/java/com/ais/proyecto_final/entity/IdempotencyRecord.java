@@ -0,0 +1,58 @@
+package com.ais.proyecto_final.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_created", columnList = "createdAt")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@EqualsAndHashCode(of = "idempotencyKey")
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 del cuerpo de la petición original, para detectar reutilizaciones de la clave
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private Long orderId;
+
+    @Lob
+    private String responseBody;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // la clave la asigna el cliente: sin esto save() haría merge (SELECT + INSERT) en vez de persist
+    @Transient
+    @Builder.Default
+    private boolean fresh = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PrePersist
+    void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        fresh = false;
+    }
+}
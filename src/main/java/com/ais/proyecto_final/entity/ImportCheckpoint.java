@@ -0,0 +1,55 @@
+package com.ais.proyecto_final.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "import_checkpoints")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@EqualsAndHashCode(of = "jobId")
+public class ImportCheckpoint {
+
+    // lo elige el cliente para poder reanudar; si no lo indica se genera uno
+    @Id
+    @Column(length = 64)
+    private String jobId;
+
+    // ejecución que tiene el job reclamado; solo ella puede mover el checkpoint
+    @Column(nullable = false, length = 36)
+    private String runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImportStatus status;
+
+    // última línea del fichero cuyo resultado ya está confirmado; al reanudar se salta hasta aquí
+    @Column(nullable = false)
+    private long committedLine;
+
+    // acumulados de todas las ejecuciones del job
+    @Column(nullable = false)
+    private long rows;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    // inicio de la ejecución actual y filas que llevaba entonces, para calcular el ritmo sin contar las paradas
+    @Column(nullable = false)
+    private LocalDateTime resumedAt;
+
+    @Column(nullable = false)
+    private long rowsAtResume;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
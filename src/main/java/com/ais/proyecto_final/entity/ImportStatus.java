@@ -0,0 +1,7 @@
+package com.ais.proyecto_final.entity;
+
+public enum ImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -11,13 +11,15 @@ import java.util.List;
 @Entity
 @Table(name = "orders", indexes = {
         @Index(name = "idx_order_customer", columnList = "customer_id"),
-        @Index(name = "idx_order_date", columnList = "orderDate")
+        @Index(name = "idx_order_date", columnList = "orderDate"),
+        @Index(name = "idx_order_status_date", columnList = "status, orderDate")
 })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @EqualsAndHashCode(of = "id")
 public class Order {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
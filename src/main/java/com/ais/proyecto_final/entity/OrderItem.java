@@ -14,13 +14,15 @@ import java.math.BigDecimal;
 @EqualsAndHashCode(of = "id")
 public class OrderItem {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Order order;
 
-    @ManyToOne(optional = false, fetch = FetchType.EAGER)
+    // LAZY: para mapear la línea basta con product_id, que el proxy ya conoce sin consultar products
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Product product;
 
     @Column(nullable = false)
@@ -28,4 +30,8 @@ public class OrderItem {
 
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal unitPrice;
+
+    // true mientras el descuento de stock de un producto "caliente" no se ha volcado a products
+    @Column(nullable = false)
+    private boolean stockPending;
 }
@@ -9,13 +9,15 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "products", indexes = {
         @Index(name = "idx_product_sku", columnList = "sku", unique = true),
-        @Index(name = "idx_product_name", columnList = "name")
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_updated", columnList = "updatedAt")
 })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @EqualsAndHashCode(of = "id")
 public class Product {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 40, unique = true)
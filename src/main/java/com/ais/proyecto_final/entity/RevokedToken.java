@@ -0,0 +1,35 @@
+package com.ais.proyecto_final.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expiresAt")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@EqualsAndHashCode(of = "jti")
+public class RevokedToken {
+
+    // claim jti del token revocado
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false, length = 100)
+    private String username;
+
+    // exp del token: a partir de ahí la fila ya no hace falta
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime revokedAt;
+
+    @PrePersist
+    void onCreate() {
+        revokedAt = LocalDateTime.now();
+    }
+}
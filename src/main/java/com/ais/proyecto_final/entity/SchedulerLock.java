@@ -0,0 +1,28 @@
+package com.ais.proyecto_final.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduler_locks")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@EqualsAndHashCode(of = "name")
+public class SchedulerLock {
+
+    // nombre de la tarea programada
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // el bloqueo caduca solo aunque el nodo que lo tiene se caiga
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(nullable = false, length = 100)
+    private String lockedBy;
+}
@@ -0,0 +1,7 @@
+package com.ais.proyecto_final.exceptions;
+
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
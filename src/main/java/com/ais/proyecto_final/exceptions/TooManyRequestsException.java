@@ -0,0 +1,7 @@
+package com.ais.proyecto_final.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,9 @@ package com.ais.proyecto_final.handlers;
 import com.ais.proyecto_final.dto.error.ErrorDetailDTO;
 import com.ais.proyecto_final.dto.error.ErrorResponseDTO;
 import com.ais.proyecto_final.exceptions.DuplicateResourceException;
+import com.ais.proyecto_final.exceptions.InvalidImportException;
 import com.ais.proyecto_final.exceptions.OrderBusinessException;
+import com.ais.proyecto_final.exceptions.TooManyRequestsException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -170,6 +172,48 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, status);
     }
 
+    /*
+        400 Bad Request INVALID_IMPORT (EJ. CSV SIN CABECERA O SIN COLUMNAS OBLIGATORIAS)
+    */
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidImportException(
+            InvalidImportException ex, HttpServletRequest request) {
+
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+
+        ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(Instant.now())
+                .path(request.getRequestURI())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .code("INVALID_IMPORT")
+                .message(ex.getMessage())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    /*
+        429 Too Many Requests TOO_MANY_REQUESTS (Ej. demasiados intentos de login)
+    */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+
+        ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .timestamp(Instant.now())
+                .path(request.getRequestURI())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .code("TOO_MANY_REQUESTS")
+                .message(ex.getMessage())
+                .build();
+
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
     // handler generíco para excepciones no controladas (internal error)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDTO> handleInternalServerError(
@@ -15,6 +15,7 @@ public interface OrderItemMapper {
     @Mapping(target = "product", ignore = true)
 
     @Mapping(target = "unitPrice", ignore = true)
+    @Mapping(target = "stockPending", ignore = true)
 
     OrderItem toEntity(LineItemRequestDTO dto);
 
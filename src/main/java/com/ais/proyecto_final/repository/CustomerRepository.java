@@ -1,14 +1,31 @@
 package com.ais.proyecto_final.repository;
 
 import com.ais.proyecto_final.entity.Customer;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface
 CustomerRepository extends JpaRepository<Customer, Long> {
     boolean existsByEmail(String email);
     Page<Customer> findByEmailContainingIgnoreCase(String email, Pageable pageable);
+
+    // comprobación de unicidad de un lote entero de la importación en una sola consulta
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // el llamante debe cerrar el stream dentro de una transacción
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT c.email FROM Customer c")
+    Stream<String> streamAllEmails();
 }
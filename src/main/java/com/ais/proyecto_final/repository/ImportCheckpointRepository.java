@@ -0,0 +1,33 @@
+package com.ais.proyecto_final.repository;
+
+import com.ais.proyecto_final.entity.ImportCheckpoint;
+import com.ais.proyecto_final.entity.ImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+
+    // reanuda un job parado o abandonado; si otra petición lo está ejecutando (y da señales de vida) no actualiza nada
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ImportCheckpoint c SET c.runId = :runId, c.status = :running, c.resumedAt = :now, c.updatedAt = :now, " +
+            "c.rowsAtResume = c.rows, c.finishedAt = NULL " +
+            "WHERE c.jobId = :jobId AND (c.status <> :running OR c.updatedAt < :staleBefore)")
+    int claim(@Param("jobId") String jobId, @Param("runId") String runId, @Param("running") ImportStatus running,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    // fencing: si otra ejecución ha retomado el job, el runId ya no coincide y no se actualiza nada
+    @Modifying
+    @Query("UPDATE ImportCheckpoint c SET c.status = :status, c.committedLine = :line, c.rows = :rows, " +
+            "c.created = :created, c.failed = :failed, c.updatedAt = :now, c.finishedAt = :finishedAt " +
+            "WHERE c.jobId = :jobId AND c.runId = :runId")
+    int updateProgress(@Param("jobId") String jobId, @Param("runId") String runId, @Param("status") ImportStatus status,
+                       @Param("line") long line, @Param("rows") long rows, @Param("created") long created,
+                       @Param("failed") long failed, @Param("now") LocalDateTime now,
+                       @Param("finishedAt") LocalDateTime finishedAt);
+}
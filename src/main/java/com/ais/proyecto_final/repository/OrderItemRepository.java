@@ -0,0 +1,40 @@
+package com.ais.proyecto_final.repository;
+
+import com.ais.proyecto_final.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("SELECT i.id FROM OrderItem i WHERE i.product.id = :productId AND i.stockPending = true ORDER BY i.id")
+    List<Long> findPendingStockItemIds(@Param("productId") Long productId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(i.quantity), 0) FROM OrderItem i WHERE i.product.id = :productId AND i.stockPending = true")
+    long sumPendingStockQuantity(@Param("productId") Long productId);
+
+    @Query("SELECT COALESCE(SUM(i.quantity), 0) FROM OrderItem i WHERE i.id IN :ids")
+    long sumQuantityByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.stockPending = false WHERE i.id IN :ids AND i.stockPending = true")
+    int markStockSettled(@Param("ids") Collection<Long> ids);
+
+    // unidades por producto de un conjunto de pedidos, para devolver el stock de una cancelación masiva
+    @Query("SELECT i.product.id AS productId, SUM(i.quantity) AS quantity FROM OrderItem i " +
+            "WHERE i.order.id IN :orderIds GROUP BY i.product.id")
+    List<ProductQuantity> sumQuantityByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    interface ProductQuantity {
+        Long getProductId();
+
+        Long getQuantity();
+    }
+}
@@ -1,10 +1,64 @@
 package com.ais.proyecto_final.repository;
 
 import com.ais.proyecto_final.entity.Order;
+import com.ais.proyecto_final.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
-}
\ No newline at end of file
+
+    // orden total y estable para el keyset: idx_order_date lleva la PK al final en InnoDB, así que sirve para (orderDate, id)
+    Sort KEYSET_SORT = Sort.by(Sort.Order.desc("orderDate"), Sort.Order.desc("id"));
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * Segunda fase de los listados: carga las líneas de todos los pedidos de la página en una sola consulta
+     * (la paginación va sobre orders, sin el JOIN que multiplicaría filas).
+     */
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Paginación por keyset: filtra con {@code orderDate/id} menores que la posición en lugar de OFFSET
+     * y no lanza COUNT, así que cualquier página cuesta lo mismo.
+     */
+    default Window<Order> scrollOrders(Specification<Order> spec, ScrollPosition position, int size) {
+        return findBy(spec, query -> query.sortBy(KEYSET_SORT).limit(size).scroll(position));
+    }
+
+    // resuelta con idx_order_status_date: igualdad en status y rango en orderDate, sin leer pedidos recientes
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.orderDate < :cutoff ORDER BY o.orderDate")
+    List<Long> findIdsByStatusAndOrderDateBefore(@Param("status") OrderStatus status,
+                                                 @Param("cutoff") LocalDateTime cutoff,
+                                                 Pageable pageable);
+
+    // SELECT ... FOR UPDATE en orden de id: dos cambios masivos que se solapan no pueden bloquearse en cruz
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+}
@@ -0,0 +1,46 @@
+package com.ais.proyecto_final.repository;
+
+import com.ais.proyecto_final.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // FOR UPDATE SKIP LOCKED (timeout -2): varias instancias del relay reparten los lotes sin esperarse.
+    // En bases sin SKIP LOCKED (H2) Hibernate lo degrada a un FOR UPDATE normal
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> lockUnpublished(Pageable pageable);
+
+    // lectura sin bloqueos para el stream SSE: cada instancia ve todos los eventos, publicados o no
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.eventType = :eventType AND e.createdAt > :after ORDER BY e.createdAt, e.id")
+    List<OutboxEvent> findCreatedAfter(@Param("eventType") String eventType, @Param("after") LocalDateTime after);
+
+    // solo ids, resueltos con el índice (eventType, createdAt): el stream los usa para detectar huecos
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.eventType = :eventType AND e.createdAt > :after AND e.createdAt <= :until")
+    List<Long> findIdsCreatedBetween(@Param("eventType") String eventType,
+                                     @Param("after") LocalDateTime after,
+                                     @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
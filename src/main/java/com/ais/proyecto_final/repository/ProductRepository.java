@@ -1,15 +1,75 @@
 package com.ais.proyecto_final.repository;
 
 import com.ais.proyecto_final.entity.Product;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     boolean existsBySku(String sku);
 
+    Optional<Product> findBySku(String sku);
+
+    List<Product> findAllBySkuIn(Collection<String> skus);
+
     Object existsBySkuAndIdNot(@NotBlank(message = "El sku es obligatorio") @Size(max = 40, message = "El sku no puede tener más de 40 caracteres") String sku, long l);
-}
\ No newline at end of file
+
+    /**
+     * Descuenta stock de forma atómica: la comprobación y la escritura van en la misma sentencia,
+     * así dos pedidos concurrentes sobre el mismo producto no pueden pisarse ni dejar stock negativo.
+     *
+     * @return filas afectadas (0 si el producto no existe, está inactivo o no hay stock suficiente)
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.stock >= :quantity AND p.active = true")
+    int decrementStockIfAvailable(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int subtractStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id")
+    int addStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+
+    // recorre el catálogo activo sin cargar entidades; el llamante debe cerrar el stream dentro de una transacción
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT p.id AS id, p.sku AS sku, p.name AS name FROM Product p WHERE p.active = true")
+    Stream<ProductLabel> streamActiveLabels();
+
+    // todos los skus, activos o no: la restricción de unicidad es sobre la tabla entera
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT p.sku FROM Product p")
+    Stream<String> streamAllSkus();
+
+    // altas, cambios y bajas lógicas recientes: cada instancia refresca con esto sus índices en memoria
+    @Query("SELECT p.id AS id, p.sku AS sku, p.name AS name, p.active AS active FROM Product p WHERE p.updatedAt > :since")
+    List<ProductLabelChange> findLabelsUpdatedSince(@Param("since") LocalDateTime since);
+
+    interface ProductLabel {
+        Long getId();
+
+        String getSku();
+
+        String getName();
+    }
+
+    interface ProductLabelChange extends ProductLabel {
+        boolean isActive();
+    }
+}
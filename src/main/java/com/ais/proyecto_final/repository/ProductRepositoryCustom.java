@@ -0,0 +1,39 @@
+package com.ais.proyecto_final.repository;
+
+import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.ais.proyecto_final.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Versión por lotes de {@link ProductRepository#decrementStockIfAvailable}: envía un UPDATE condicional
+     * por producto en un único lote JDBC dentro de la transacción en curso.
+     *
+     * @param quantitiesByProduct cantidad a descontar por ID de producto
+     * @return IDs de los productos cuyo UPDATE no afectó a ninguna fila
+     */
+    Set<Long> decrementStockBatch(Map<Long, Integer> quantitiesByProduct);
+
+    /**
+     * Suma stock a varios productos con un UPDATE por producto en un único lote JDBC, dentro de la
+     * transacción en curso. Se usa para devolver el stock de los pedidos cancelados.
+     *
+     * @param quantitiesByProduct cantidad a devolver por ID de producto
+     * @return IDs de los productos que no existen
+     */
+    Set<Long> incrementStockBatch(Map<Long, Integer> quantitiesByProduct);
+
+    /**
+     * Listado de productos proyectado directamente a {@link ProductResponseDTO}: no hidrata entidades,
+     * así que no hay contexto de persistencia, snapshots ni dirty checking.
+     *
+     * @param includeDescription si es false la descripción no se lee de la base de datos y llega a null
+     */
+    Page<ProductResponseDTO> findSummaries(Specification<Product> spec, Pageable pageable, boolean includeDescription);
+}
@@ -0,0 +1,121 @@
+package com.ais.proyecto_final.repository;
+
+import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.ais.proyecto_final.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock >= ? AND active = true";
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Set<Long> decrementStockBatch(Map<Long, Integer> quantitiesByProduct) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantitiesByProduct.entrySet());
+        // se usa la conexión de la transacción JPA en curso, así un fallo posterior lo deshace todo
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(DECREMENT_STOCK_SQL)) {
+                for (Map.Entry<Long, Integer> line : lines) {
+                    statement.setInt(1, line.getValue());
+                    statement.setLong(2, line.getKey());
+                    statement.setInt(3, line.getValue());
+                    statement.addBatch();
+                }
+                // cualquier cosa distinta de 1 (incluido SUCCESS_NO_INFO) se trata como rechazo:
+                // mejor fallar el pedido que vender stock que no existe
+                return unmatched(lines, statement.executeBatch());
+            }
+        });
+    }
+
+    @Override
+    public Set<Long> incrementStockBatch(Map<Long, Integer> quantitiesByProduct) {
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantitiesByProduct.entrySet());
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INCREMENT_STOCK_SQL)) {
+                for (Map.Entry<Long, Integer> line : lines) {
+                    statement.setInt(1, line.getValue());
+                    statement.setLong(2, line.getKey());
+                    statement.addBatch();
+                }
+                return unmatched(lines, statement.executeBatch());
+            }
+        });
+    }
+
+    private static Set<Long> unmatched(List<Map.Entry<Long, Integer>> lines, int[] updated) {
+        Set<Long> unmatched = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 1) {
+                unmatched.add(lines.get(i).getKey());
+            }
+        }
+        return unmatched;
+    }
+
+    @Override
+    public Page<ProductResponseDTO> findSummaries(Specification<Product> spec, Pageable pageable, boolean includeDescription) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductResponseDTO> query = cb.createQuery(ProductResponseDTO.class);
+        Root<Product> root = query.from(Product.class);
+        Expression<String> description = includeDescription ? root.get("description") : cb.nullLiteral(String.class);
+        query.select(cb.construct(ProductResponseDTO.class,
+                root.get("id"), root.get("sku"), root.get("name"), description, root.get("price"),
+                root.get("stock"), root.get("active"), root.get("createdAt"), root.get("updatedAt")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<ProductResponseDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductResponseDTO> content = typedQuery.getResultList();
+
+        // el COUNT solo se lanza si la página no basta para deducir el total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
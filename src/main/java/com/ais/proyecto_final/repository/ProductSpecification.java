@@ -4,6 +4,8 @@ import com.ais.proyecto_final.entity.Product;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
+
 public class ProductSpecification {
 
     /**
@@ -31,4 +33,12 @@ public class ProductSpecification {
             return cb.conjunction();
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Devuelve un Specification que filtra por una lista de ids ya resuelta (p. ej. por el índice de nombres).
+     * Una colección vacía no devuelve ningún producto.
+     */
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ais.proyecto_final.security;
+
+import com.ais.proyecto_final.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado para verificar contraseñas (BCrypt) fuera de los hilos de Tomcat. Si el pool y su cola
+ * están llenos el login se rechaza con 429 en lugar de acumular peticiones: una ráfaga de logins no
+ * puede dejar sin hilos al catálogo ni a los pedidos.
+ * <p>
+ * No se expone como bean {@code Executor} para no sustituir el executor que Spring Boot configura por defecto.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public LoginExecutor(MeterRegistry meterRegistry,
+                         @Value("${app.security.login.threads:2}") int threads,
+                         @Value("${app.security.login.queue-capacity:50}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "login", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("El servicio de login está saturado. Inténtelo de nuevo más tarde.");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,87 @@
+package com.ais.proyecto_final.security;
+
+import com.ais.proyecto_final.exceptions.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limita los intentos de login con un token bucket por usuario y otro por IP. Se comprueba antes de
+ * verificar la contraseña, así un ataque de fuerza bruta no llega a consumir CPU de BCrypt.
+ * <p>
+ * Los buckets viven en una caché acotada que descarta los inactivos; una IP o usuario olvidado vuelve
+ * con el bucket lleno, que es lo mismo que tendría tras el tiempo de recarga.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final Cache<String, TokenBucket> buckets;
+    private final int usernameCapacity;
+    private final int ipCapacity;
+    private final double refillPerNano;
+
+    public LoginThrottle(@Value("${app.security.login.username-capacity:5}") int usernameCapacity,
+                         @Value("${app.security.login.ip-capacity:20}") int ipCapacity,
+                         @Value("${app.security.login.refill-per-minute:5}") int refillPerMinute,
+                         @Value("${app.security.login.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.usernameCapacity = usernameCapacity;
+        this.ipCapacity = ipCapacity;
+        this.refillPerNano = refillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build();
+    }
+
+    /**
+     * Consume un intento para el usuario y la IP.
+     *
+     * @throws TooManyRequestsException si cualquiera de los dos se ha quedado sin intentos
+     */
+    public void acquire(String username, String ip) {
+        String userKey = "u:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+        String ipKey = "ip:" + ip;
+        // la IP primero: un mismo origen probando muchos usuarios no debe vaciar el bucket de cada uno
+        if (!bucket(ipKey, ipCapacity).tryConsume() || !bucket(userKey, usernameCapacity).tryConsume()) {
+            log.warn("Login limitado para el usuario {} desde {}", username, ip);
+            throw new TooManyRequestsException("Demasiados intentos de login. Inténtelo de nuevo más tarde.");
+        }
+    }
+
+    private TokenBucket bucket(String key, int capacity) {
+        return buckets.get(key, k -> new TokenBucket(capacity, refillPerNano));
+    }
+
+    static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, double refillPerNano) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ais.proyecto_final.security;
+
+import com.ais.proyecto_final.entity.RevokedToken;
+import com.ais.proyecto_final.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tokens revocados antes de su expiración (logout o token comprometido).
+ * <p>
+ * La comprobación en cada petición es una búsqueda por jti en un mapa en memoria. La tabla revoked_tokens
+ * es la fuente de verdad: al arrancar y periódicamente se vuelca al mapa (así también llegan las revocaciones
+ * hechas en otras instancias) y se eliminan las entradas cuyo token ya ha expirado, que el filtro
+ * rechazaría de todas formas.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    // jti -> exp del token en milisegundos
+    private final ConcurrentMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(String jti, String username, Date expiration) {
+        if (jti == null || expiration == null) {
+            // tokens emitidos antes de incluir jti: no se pueden revocar uno a uno, caducan solos
+            log.warn("No se puede revocar un token sin jti del usuario {}", username);
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .username(username)
+                .expiresAt(toLocalDateTime(expiration.getTime()))
+                .build());
+        revoked.put(jti, expiration.getTime());
+        log.info("Token {} del usuario {} revocado", jti, username);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        int purged = revokedTokenRepository.deleteExpired(toLocalDateTime(now));
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(toLocalDateTime(now))) {
+            revoked.putIfAbsent(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (purged > 0) {
+            log.info("Eliminados {} tokens revocados ya expirados", purged);
+        }
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
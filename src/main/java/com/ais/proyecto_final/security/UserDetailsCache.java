@@ -0,0 +1,55 @@
+package com.ais.proyecto_final.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Caché de {@link UserDetails} delante del {@link UserDetailsService} para el filtro JWT.
+ * <p>
+ * No se registra como otro bean {@code UserDetailsService}: Spring Security solo configura el
+ * AuthenticationManager del login cuando hay exactamente uno, y el login debe seguir leyendo siempre
+ * del origen. Quien modifique usuarios (contraseña, roles, baja) debe llamar a {@link #invalidate}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(UserDetailsService userDetailsService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.security.user-cache.max-size:10000}") long maxSize,
+                            @Value("${app.security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    /**
+     * Igual que {@link UserDetailsService#loadUserByUsername}, sin ir al origen si el usuario está en caché.
+     * Los usuarios inexistentes no se cachean.
+     */
+    public UserDetails loadUserByUsername(String username) {
+        return cache.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ais.proyecto_final.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Tokens ya verificados con su usuario (subject) y jti, para no repetir la comprobación de la firma
+ * en cada petición con el mismo bearer.
+ * <p>
+ * La clave es el SHA-256 del token (el token en claro no se guarda). Cada entrada caduca en el {@code exp}
+ * del token o al cumplir el TTL configurado, lo que llegue antes.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Entry> cache;
+    private final long maxTtlNanos;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${app.jwt.cache.max-size:10000}") long maxSize,
+                              @Value("${app.jwt.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxTtlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        long untilExpiration = Duration.ofMillis(entry.expiresAtMillis() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(untilExpiration, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt-tokens");
+    }
+
+    public VerifiedToken get(String token) {
+        Entry entry = cache.getIfPresent(hash(token));
+        // la caducidad de Caffeine no es exacta al milisegundo: el exp se comprueba también aquí
+        if (entry == null || entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.token();
+    }
+
+    public void put(String token, Date expiration, String username, String jti) {
+        if (expiration == null) {
+            return;
+        }
+        cache.put(hash(token), new Entry(new VerifiedToken(username, jti), expiration.getTime()));
+    }
+
+    public void evict(String token) {
+        cache.invalidate(hash(token));
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record VerifiedToken(String username, String jti) {
+    }
+
+    private record Entry(VerifiedToken token, long expiresAtMillis) {
+    }
+}
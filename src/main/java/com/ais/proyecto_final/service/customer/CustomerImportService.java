@@ -0,0 +1,28 @@
+package com.ais.proyecto_final.service.customer;
+
+import com.ais.proyecto_final.dto.customer.CustomerImportProgressDTO;
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface CustomerImportService {
+
+    /**
+     * Da de alta los clientes (con sus direcciones) de un NDJSON, un {@code CustomerImportDTO} por línea.
+     * Se escribe en lotes de app.import.customers.chunk-size filas; cada lote confirma a la vez sus altas y el
+     * checkpoint del job, así que si la importación se corta basta con volver a enviar el mismo fichero con el
+     * mismo {@code jobId} para seguir donde se quedó. Los emails que ya existen se informan como error.
+     *
+     * @param jobId identificador del job para poder reanudarlo; null para generar uno nuevo
+     * @return el resultado de esta ejecución; los acumulados del job están en {@link #getProgress}
+     * @throws com.ais.proyecto_final.exceptions.DuplicateResourceException si el job ya se está ejecutando
+     * @throws IOException si falla la lectura del flujo
+     */
+    ImportResultDTO importCustomers(String jobId, Reader source) throws IOException;
+
+    /**
+     * @throws jakarta.persistence.EntityNotFoundException si el job no existe
+     */
+    CustomerImportProgressDTO getProgress(String jobId);
+}
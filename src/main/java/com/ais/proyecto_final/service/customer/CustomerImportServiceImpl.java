@@ -0,0 +1,390 @@
+package com.ais.proyecto_final.service.customer;
+
+import com.ais.proyecto_final.dto.customer.AddressRequestDTO;
+import com.ais.proyecto_final.dto.customer.CustomerImportDTO;
+import com.ais.proyecto_final.dto.customer.CustomerImportProgressDTO;
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.entity.Address;
+import com.ais.proyecto_final.entity.Customer;
+import com.ais.proyecto_final.entity.ImportCheckpoint;
+import com.ais.proyecto_final.entity.ImportStatus;
+import com.ais.proyecto_final.exceptions.DuplicateResourceException;
+import com.ais.proyecto_final.exceptions.InvalidImportException;
+import com.ais.proyecto_final.mappers.AddressMapper;
+import com.ais.proyecto_final.mappers.CustomerMapper;
+import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.repository.ImportCheckpointRepository;
+import com.ais.proyecto_final.service.importing.ImportReport;
+import com.ais.proyecto_final.service.importing.ImportRow;
+import com.ais.proyecto_final.service.importing.NdjsonRowReader;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Service
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportServiceImpl.class);
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = Duration.ofSeconds(10).toNanos();
+
+    private final CustomerRepository customerRepository;
+    private final ImportCheckpointRepository importCheckpointRepository;
+    private final CustomerMapper customerMapper;
+    private final AddressMapper addressMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final UniquenessFilters uniquenessFilters;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxRecordChars;
+    private final Duration staleAfter;
+
+    public CustomerImportServiceImpl(CustomerRepository customerRepository,
+                                     ImportCheckpointRepository importCheckpointRepository,
+                                     CustomerMapper customerMapper,
+                                     AddressMapper addressMapper,
+                                     Validator validator,
+                                     ObjectMapper objectMapper,
+                                     TransactionTemplate transactionTemplate,
+                                     UniquenessFilters uniquenessFilters,
+                                     @Value("${app.import.customers.chunk-size:500}") int chunkSize,
+                                     @Value("${app.import.max-errors:1000}") int maxErrors,
+                                     @Value("${app.import.max-record-chars:1048576}") int maxRecordChars,
+                                     @Value("${app.import.customers.stale-after-seconds:300}") long staleAfterSeconds) {
+        this.customerRepository = customerRepository;
+        this.importCheckpointRepository = importCheckpointRepository;
+        this.customerMapper = customerMapper;
+        this.addressMapper = addressMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.uniquenessFilters = uniquenessFilters;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxRecordChars = maxRecordChars;
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+    }
+
+    @Override
+    public ImportResultDTO importCustomers(String jobId, Reader source) throws IOException {
+        String id = jobId == null ? UUID.randomUUID().toString() : jobId;
+        if (!JOB_ID.matcher(id).matches()) {
+            throw new InvalidImportException("jobId no válido: solo letras, dígitos, '.', '_' o '-' y como mucho 64 caracteres");
+        }
+        String runId = UUID.randomUUID().toString();
+        ImportCheckpoint start = claim(id, runId);
+        Progress progress = new Progress(id, runId, start, new ImportReport(maxErrors));
+        log.info("Importación de clientes {}: {} desde la línea {}", id,
+                start.getCommittedLine() == 0 ? "empezando" : "reanudando", start.getCommittedLine() + 1);
+
+        try (NdjsonRowReader<CustomerImportDTO> reader = new NdjsonRowReader<>(source, objectMapper, CustomerImportDTO.class, maxRecordChars)) {
+            // lo ya confirmado en ejecuciones anteriores no se vuelve a parsear
+            reader.skipThrough(start.getCommittedLine());
+            List<ImportRow<CustomerImportDTO>> chunk = new ArrayList<>(chunkSize);
+            ImportRow<CustomerImportDTO> row;
+            while ((row = reader.next()) != null) {
+                progress.lastLine = row.line();
+                progress.report.rowRead();
+                if (!row.isValid()) {
+                    progress.report.failed(row.line(), null, row.error());
+                    continue;
+                }
+                String violations = validate(row.value());
+                if (violations != null) {
+                    progress.report.failed(row.line(), row.value().getEmail(), violations);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, progress);
+            finish(progress, ImportStatus.COMPLETED);
+        } catch (DuplicateResourceException e) {
+            // el checkpoint ya es de la otra ejecución: no se toca
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Importación de clientes {} interrumpida en la línea {}: {}", id, progress.committedLine, e.getMessage());
+            try {
+                finish(progress, ImportStatus.FAILED);
+            } catch (RuntimeException checkpointError) {
+                log.warn("No se pudo marcar como fallida la importación {}: {}", id, checkpointError.getMessage());
+            }
+            throw e;
+        }
+
+        ImportResultDTO result = progress.report.toResult();
+        result.setJobId(id);
+        result.setResumedFromLine(start.getCommittedLine() + 1);
+        log.info("Importación de clientes {} terminada: {} filas, {} altas, {} con error en {} ms ({} filas/s)", id,
+                result.getRows(), result.getCreated(), result.getFailed(), result.getElapsedMs(),
+                rate(result.getRows(), result.getElapsedMs()));
+        return result;
+    }
+
+    @Override
+    public CustomerImportProgressDTO getProgress(String jobId) {
+        ImportCheckpoint checkpoint = importCheckpointRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Importación " + jobId + " no existe."));
+        LocalDateTime end = checkpoint.getFinishedAt() != null ? checkpoint.getFinishedAt() : checkpoint.getUpdatedAt();
+        long elapsedMs = Duration.between(checkpoint.getResumedAt(), end).toMillis();
+        return CustomerImportProgressDTO.builder()
+                .jobId(checkpoint.getJobId())
+                .status(checkpoint.getStatus())
+                .committedLine(checkpoint.getCommittedLine())
+                .rows(checkpoint.getRows())
+                .created(checkpoint.getCreated())
+                .failed(checkpoint.getFailed())
+                .rowsPerSecond(rate(checkpoint.getRows() - checkpoint.getRowsAtResume(), elapsedMs))
+                .startedAt(checkpoint.getStartedAt())
+                .updatedAt(checkpoint.getUpdatedAt())
+                .finishedAt(checkpoint.getFinishedAt())
+                .build();
+    }
+
+    // un job RUNNING sin checkpoints durante staleAfter se da por abandonado y se retoma con un runId nuevo;
+    // si la ejecución anterior solo iba lenta, su siguiente checkpoint no actualiza nada y se detiene
+    private ImportCheckpoint claim(String jobId, String runId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            ImportCheckpoint claimed = transactionTemplate.execute(status -> {
+                if (importCheckpointRepository.claim(jobId, runId, ImportStatus.RUNNING, now, now.minus(staleAfter)) == 1) {
+                    return importCheckpointRepository.findById(jobId).orElseThrow();
+                }
+                if (importCheckpointRepository.existsById(jobId)) {
+                    return null;
+                }
+                return importCheckpointRepository.saveAndFlush(ImportCheckpoint.builder()
+                        .jobId(jobId)
+                        .runId(runId)
+                        .status(ImportStatus.RUNNING)
+                        .startedAt(now)
+                        .resumedAt(now)
+                        .updatedAt(now)
+                        .build());
+            });
+            if (claimed != null) {
+                return claimed;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // otra petición creó el mismo job a la vez
+        }
+        log.warn("La importación {} ya se está ejecutando", jobId);
+        throw new DuplicateResourceException("La importación " + jobId + " ya se está ejecutando.");
+    }
+
+    private String validate(CustomerImportDTO dto) {
+        var violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void writeChunk(List<ImportRow<CustomerImportDTO>> chunk, Progress progress) {
+        Outcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> {
+                Outcome inserted = insert(chunk);
+                saveCheckpoint(progress, inserted);
+                return inserted;
+            });
+        } catch (DuplicateResourceException e) {
+            // el job lo ha retomado otra ejecución: el lote se ha deshecho y esta no debe seguir
+            throw e;
+        } catch (RuntimeException e) {
+            // el lote se ha deshecho entero; se repite fila a fila para aislar las que fallan y después se guarda el checkpoint.
+            // Si el proceso cae entre medias, o el job lo retoma otra ejecución, esas filas chocan después con el índice
+            // único y salen como error, no duplicadas
+            log.warn("Lote de {} clientes rechazado ({}); reintentando fila a fila", chunk.size(), e.getMessage());
+            outcome = new Outcome(new ArrayList<>(), new ArrayList<>());
+            for (ImportRow<CustomerImportDTO> row : chunk) {
+                try {
+                    Outcome single = transactionTemplate.execute(status -> insert(List.of(row)));
+                    outcome.createdEmails().addAll(single.createdEmails());
+                    outcome.failures().addAll(single.failures());
+                } catch (RuntimeException rowError) {
+                    outcome.failures().add(new Failure(row, describe(rowError)));
+                }
+            }
+            Outcome retried = outcome;
+            transactionTemplate.executeWithoutResult(status -> saveCheckpoint(progress, retried));
+        }
+
+        outcome.createdEmails().forEach(uniquenessFilters::emailAdded);
+        progress.report.created(outcome.createdEmails().size());
+        outcome.failures().forEach(f -> progress.report.failed(f.row().line(), f.row().value().getEmail(), f.message()));
+        progress.committed();
+        progress.logIfDue();
+    }
+
+    private Outcome insert(List<ImportRow<CustomerImportDTO>> rows) {
+        List<Failure> failures = new ArrayList<>();
+        if (rows.isEmpty()) {
+            return new Outcome(new ArrayList<>(), failures);
+        }
+        // una sola consulta IN por lote para los emails que el filtro de Bloom no descarta
+        List<String> candidates = rows.stream()
+                .map(row -> row.value().getEmail())
+                .filter(uniquenessFilters::emailMightExist)
+                .toList();
+        // el índice único de MySQL compara sin distinguir mayúsculas: aquí se compara igual
+        Set<String> taken = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            customerRepository.findExistingEmails(candidates).forEach(email -> taken.add(email.toLowerCase(Locale.ROOT)));
+        }
+
+        Map<String, Long> firstLineByEmail = new HashMap<>();
+        List<Customer> customers = new ArrayList<>();
+        for (ImportRow<CustomerImportDTO> row : rows) {
+            String email = row.value().getEmail().toLowerCase(Locale.ROOT);
+            if (taken.contains(email)) {
+                failures.add(new Failure(row, "El email ya está en uso."));
+                continue;
+            }
+            Long firstLine = firstLineByEmail.putIfAbsent(email, row.line());
+            if (firstLine != null) {
+                failures.add(new Failure(row, "Email repetido en el fichero (línea " + firstLine + ")."));
+                continue;
+            }
+            customers.add(toEntity(row.value()));
+        }
+        customerRepository.saveAll(customers);
+        // clientes y direcciones salen aquí en lotes JDBC (hibernate.jdbc.batch_size + order_inserts)
+        customerRepository.flush();
+        return new Outcome(customers.stream().map(Customer::getEmail).collect(Collectors.toCollection(ArrayList::new)), failures);
+    }
+
+    private Customer toEntity(CustomerImportDTO dto) {
+        Customer customer = customerMapper.toEntity(dto);
+        if (dto.getAddresses() != null) {
+            for (AddressRequestDTO addressDto : dto.getAddresses()) {
+                Address address = addressMapper.toEntity(addressDto);
+                address.setCustomer(customer);
+                // igual que en addAddressToCustomer: la última dirección marcada por defecto es la que queda
+                if (address.isDefaultAddress()) {
+                    customer.getAddresses().forEach(a -> a.setDefaultAddress(false));
+                }
+                customer.getAddresses().add(address);
+            }
+        }
+        return customer;
+    }
+
+    // se llama dentro de la transacción del lote: altas y checkpoint se confirman juntos
+    private void saveCheckpoint(Progress progress, Outcome pending) {
+        ImportReport report = progress.report;
+        updateCheckpoint(progress, ImportStatus.RUNNING, progress.lastLine,
+                progress.start.getRows() + report.rows(),
+                progress.start.getCreated() + report.createdCount() + pending.createdEmails().size(),
+                progress.start.getFailed() + report.failedCount() + pending.failures().size());
+    }
+
+    // cierra el job con lo confirmado en el último lote; lo leído después se volverá a procesar al reanudar
+    private void finish(Progress progress, ImportStatus status) {
+        transactionTemplate.executeWithoutResult(tx -> updateCheckpoint(progress, status, progress.committedLine,
+                progress.committedRows, progress.committedCreated, progress.committedFailed));
+    }
+
+    private void updateCheckpoint(Progress progress, ImportStatus status, long line, long rows, long created, long failed) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = importCheckpointRepository.updateProgress(progress.jobId, progress.runId, status, line, rows,
+                created, failed, now, status == ImportStatus.RUNNING ? null : now);
+        if (updated == 0) {
+            // lanzado dentro de la transacción del lote: sus altas se deshacen junto con el checkpoint
+            log.warn("La importación {} la ha retomado otra ejecución; se detiene la ejecución {}", progress.jobId, progress.runId);
+            throw new DuplicateResourceException("La importación " + progress.jobId + " la ha retomado otra petición.");
+        }
+    }
+
+    private static String describe(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return "Rechazado por la base de datos: el email ya existe o algún dato no cumple las restricciones";
+        }
+        return "Error al guardar: " + e.getClass().getSimpleName();
+    }
+
+    private static double rate(long rows, long elapsedMs) {
+        return elapsedMs <= 0 ? 0 : rows * 1000.0 / elapsedMs;
+    }
+
+    private record Failure(ImportRow<CustomerImportDTO> row, String message) {
+    }
+
+    private record Outcome(List<String> createdEmails, List<Failure> failures) {
+    }
+
+    // estado de la ejecución en curso
+    private static final class Progress {
+        private final String jobId;
+        private final String runId;
+        private final ImportCheckpoint start;
+        private final ImportReport report;
+        private final long startNanos = System.nanoTime();
+        private long lastLine;
+        // acumulados del job según el último checkpoint confirmado
+        private long committedLine;
+        private long committedRows;
+        private long committedCreated;
+        private long committedFailed;
+        private long lastLogNanos = startNanos;
+
+        private Progress(String jobId, String runId, ImportCheckpoint start, ImportReport report) {
+            this.jobId = jobId;
+            this.runId = runId;
+            this.start = start;
+            this.report = report;
+            this.lastLine = start.getCommittedLine();
+            this.committedLine = start.getCommittedLine();
+            this.committedRows = start.getRows();
+            this.committedCreated = start.getCreated();
+            this.committedFailed = start.getFailed();
+        }
+
+        private void committed() {
+            committedLine = lastLine;
+            committedRows = start.getRows() + report.rows();
+            committedCreated = start.getCreated() + report.createdCount();
+            committedFailed = start.getFailed() + report.failedCount();
+        }
+
+        private void logIfDue() {
+            long now = System.nanoTime();
+            if (now - lastLogNanos >= PROGRESS_LOG_INTERVAL_NANOS) {
+                lastLogNanos = now;
+                long elapsedMs = (now - startNanos) / 1_000_000;
+                log.info("Importación de clientes {}: {} filas en esta ejecución, línea {}, {} filas/s", jobId,
+                        report.rows(), committedLine, Math.round(rate(report.rows(), elapsedMs)));
+            }
+        }
+    }
+}
@@ -11,9 +11,12 @@ import com.ais.proyecto_final.exceptions.DuplicateResourceException;
 import com.ais.proyecto_final.mappers.AddressMapper;
 import com.ais.proyecto_final.mappers.CustomerMapper;
 import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.service.uniqueness.UniqueIndexViolations;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.domain.Page;
@@ -30,16 +33,19 @@ public class CustomerServiceImpl implements CustomerService{
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
     private final AddressMapper addressMapper;
+    private final UniquenessFilters uniquenessFilters;
     @Transactional
     public CustomerResponseDTO createCustomer(CustomerRequestDTO customerRequestDTO) {
         log.info("Creando customer con email: {}", customerRequestDTO.getEmail());
-        if (customerRepository.existsByEmail(customerRequestDTO.getEmail())) {
+        if (uniquenessFilters.emailMightExist(customerRequestDTO.getEmail())
+                && customerRepository.existsByEmail(customerRequestDTO.getEmail())) {
             log.warn("Fallo al crear customer. El email {} ya está en uso.", customerRequestDTO.getEmail());
             throw new DuplicateResourceException("El email ya está en uso.");
         }
 
         Customer customer = customerMapper.toEntity(customerRequestDTO);
-        Customer saved = customerRepository.save(customer);
+        Customer saved = saveUnique(customer);
+        uniquenessFilters.emailAdded(saved.getEmail());
         log.info("Customer creado con ID: {}", saved.getId());
         return customerMapper.toResponseDto(saved);
     }
@@ -90,6 +96,7 @@ public class CustomerServiceImpl implements CustomerService{
                 .orElseThrow(() -> new EntityNotFoundException("Cliente " + id + " no existe."));
         log.warn("Fallo en update: no se encontró cliente con id: {}.", id);
         if (!existing.getEmail().equals(dto.getEmail()) &&
+                uniquenessFilters.emailMightExist(dto.getEmail()) &&
                 customerRepository.existsByEmail(dto.getEmail())) {
             log.warn("Fallo al actualizar cliente: {}. El email: {} ya está en uso.", id, dto.getEmail());
             throw new DuplicateResourceException("El email introducido ya está en uso.");
@@ -97,11 +104,27 @@ public class CustomerServiceImpl implements CustomerService{
 
 
         customerMapper.updateEntityFromDto(dto, existing);
-        Customer updated = customerRepository.save(existing);
+        Customer updated = saveUnique(existing);
+        uniquenessFilters.emailAdded(updated.getEmail());
         log.info("actualizado cliente con id: {}.", updated.getId());
         return customerMapper.toResponseDto(updated);
     }
 
+    private Customer saveUnique(Customer customer) {
+        try {
+            Customer saved = customerRepository.save(customer);
+            // el flush adelanta la sentencia para traducir aquí, y no en el commit, la violación del índice único
+            customerRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueIndexViolations.isViolationOf(e, "idx_customer_email")) {
+                throw e;
+            }
+            log.warn("El índice único rechazó el email {}: ya está en uso.", customer.getEmail());
+            throw new DuplicateResourceException("El email ya está en uso.");
+        }
+    }
+
     @Transactional
     public AddressResponseDTO addAddressToCustomer(Long customerId, AddressRequestDTO dto) {
         log.info("Añadiendo dirección a cliente id: {}", customerId);
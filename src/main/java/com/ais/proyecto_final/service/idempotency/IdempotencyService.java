@@ -0,0 +1,14 @@
+package com.ais.proyecto_final.service.idempotency;
+
+import com.ais.proyecto_final.dto.order.OrderRequestDTO;
+import com.ais.proyecto_final.dto.order.OrderResponseDTO;
+
+public interface IdempotencyService {
+
+    /**
+     * Crea el pedido una sola vez por clave de idempotencia. Los reintentos con la misma clave
+     * devuelven la respuesta guardada sin volver a reservar stock; las peticiones concurrentes
+     * con la misma clave esperan a la primera y reciben su resultado.
+     */
+    OrderResponseDTO createOrder(String idempotencyKey, OrderRequestDTO orderRequest);
+}
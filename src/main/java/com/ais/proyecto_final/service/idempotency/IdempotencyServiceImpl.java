@@ -0,0 +1,202 @@
+package com.ais.proyecto_final.service.idempotency;
+
+import com.ais.proyecto_final.dto.order.OrderRequestDTO;
+import com.ais.proyecto_final.dto.order.OrderResponseDTO;
+import com.ais.proyecto_final.entity.IdempotencyRecord;
+import com.ais.proyecto_final.exceptions.DuplicateResourceException;
+import com.ais.proyecto_final.exceptions.OrderBusinessException;
+import com.ais.proyecto_final.repository.IdempotencyRecordRepository;
+import com.ais.proyecto_final.service.order.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    // peticiones en curso en esta instancia: los duplicados concurrentes esperan a la primera
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // caché LRU acotada delante de la tabla para los reintentos más recientes
+    private final Map<String, StoredResponse> recentResponses;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  OrderService orderService,
+                                  ObjectMapper objectMapper,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${app.idempotency.ttl-hours:24}") long ttlHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.recentResponses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public OrderResponseDTO createOrder(String idempotencyKey, OrderRequestDTO orderRequest) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new OrderBusinessException("La cabecera Idempotency-Key no puede superar " + MAX_KEY_LENGTH + " caracteres.");
+        }
+        String requestHash = hash(orderRequest);
+
+        StoredResponse cached = recentResponses.get(idempotencyKey);
+        if (cached != null && cached.createdAt().isAfter(LocalDateTime.now().minus(ttl))) {
+            log.info("Reintento con Idempotency-Key {} servido desde caché", idempotencyKey);
+            return replay(idempotencyKey, cached, requestHash);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (existing != null) {
+            log.info("Petición concurrente con Idempotency-Key {}. Esperando a la primera.", idempotencyKey);
+            checkSameRequest(existing.requestHash(), requestHash);
+            return await(existing.future());
+        }
+
+        try {
+            OrderResponseDTO response = execute(idempotencyKey, orderRequest, requestHash);
+            mine.future().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Eliminadas {} claves de idempotencia caducadas", deleted);
+        }
+    }
+
+    private OrderResponseDTO execute(String idempotencyKey, OrderRequestDTO orderRequest, String requestHash) {
+        var stored = idempotencyRecordRepository.findById(idempotencyKey);
+        if (stored.isPresent()) {
+            log.info("Reintento con Idempotency-Key {} servido desde la base de datos", idempotencyKey);
+            return replay(idempotencyKey, remember(idempotencyKey, stored.get()), requestHash);
+        }
+
+        try {
+            // la clave y el pedido se guardan en la misma transacción: si algo falla no queda nada a medias,
+            // y otra instancia que inserte la misma clave queda bloqueada en la PK hasta que esta termine
+            IdempotencyRecord record = transactionTemplate.execute(status -> {
+                IdempotencyRecord created = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .requestHash(requestHash)
+                        .build());
+                OrderResponseDTO response = orderService.createOrder(orderRequest);
+                created.setOrderId(response.getId());
+                created.setResponseBody(toJson(response));
+                return created;
+            });
+            log.info("Pedido {} creado con Idempotency-Key {}", record.getOrderId(), idempotencyKey);
+            return remember(idempotencyKey, record).response();
+        } catch (DataIntegrityViolationException e) {
+            log.info("La Idempotency-Key {} la procesó otra instancia. Recuperando su respuesta.", idempotencyKey);
+            IdempotencyRecord winner = idempotencyRecordRepository.findById(idempotencyKey)
+                    .orElseThrow(() -> e);
+            return replay(idempotencyKey, remember(idempotencyKey, winner), requestHash);
+        }
+    }
+
+    private OrderResponseDTO replay(String idempotencyKey, StoredResponse stored, String requestHash) {
+        checkSameRequest(stored.requestHash(), requestHash);
+        log.info("Devolviendo el pedido {} ya creado para la Idempotency-Key {}", stored.response().getId(), idempotencyKey);
+        return stored.response();
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new DuplicateResourceException("La Idempotency-Key ya se usó con una petición distinta.");
+        }
+    }
+
+    private StoredResponse remember(String idempotencyKey, IdempotencyRecord record) {
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), fromJson(record.getResponseBody()), record.getCreatedAt());
+        recentResponses.put(idempotencyKey, stored);
+        return stored;
+    }
+
+    private OrderResponseDTO await(CompletableFuture<OrderResponseDTO> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(OrderRequestDTO orderRequest) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(orderRequest).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private OrderResponseDTO fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta guardada", e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponseDTO> future) {
+    }
+
+    private record StoredResponse(String requestHash, OrderResponseDTO response, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.ais.proyecto_final.service.importing;
+
+import com.ais.proyecto_final.exceptions.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV según RFC 4180: la primera línea es la cabecera, los campos pueden ir entre comillas dobles (con
+ * comas, saltos de línea o comillas duplicadas dentro) y las líneas vacías se ignoran. Cada registro se
+ * devuelve como un mapa columna → valor, con los nombres de columna en minúsculas.
+ * <p>
+ * Un registro de más de {@code maxRecordChars} caracteres detiene la lectura con
+ * {@link InvalidImportException}: suele ser una comilla sin cerrar, y a partir de ahí no se puede saber
+ * dónde acaba el registro.
+ */
+public class CsvRowReader implements RowReader<Map<String, String>> {
+
+    private final BufferedReader reader;
+    private final List<String> header;
+    private final int maxRecordChars;
+    private long line = 1;
+    private boolean eof;
+
+    public CsvRowReader(Reader source, int maxRecordChars) throws IOException {
+        this.reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        this.maxRecordChars = maxRecordChars;
+        List<String> columns = readRecord();
+        if (columns == null) {
+            throw new InvalidImportException("El fichero CSV está vacío: falta la cabecera");
+        }
+        // BOM de UTF-8 que añaden algunas hojas de cálculo al exportar
+        if (!columns.isEmpty() && columns.get(0).startsWith("\uFEFF")) {
+            columns.set(0, columns.get(0).substring(1));
+        }
+        this.header = columns.stream().map(c -> c.strip().toLowerCase(Locale.ROOT)).toList();
+    }
+
+    /**
+     * @throws InvalidImportException si a la cabecera le falta alguna de las columnas indicadas
+     */
+    public void requireColumns(List<String> required) {
+        List<String> missing = required.stream().filter(c -> !header.contains(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportException("Faltan columnas en la cabecera del CSV: " + missing);
+        }
+    }
+
+    @Override
+    public ImportRow<Map<String, String>> next() throws IOException {
+        List<String> fields;
+        long start;
+        do {
+            start = line;
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+        if (fields.size() != header.size()) {
+            return ImportRow.failed(start, "Se esperaban " + header.size() + " columnas y hay " + fields.size());
+        }
+        Map<String, String> row = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), fields.get(i));
+        }
+        return ImportRow.ok(start, row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // lee un registro completo, que puede ocupar varias líneas si un campo entrecomillado las contiene
+    private List<String> readRecord() throws IOException {
+        if (eof) {
+            return null;
+        }
+        long start = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int length = 0;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (++length > maxRecordChars) {
+                throw new InvalidImportException("Importación detenida: el registro de la línea " + start + " supera "
+                        + maxRecordChars + " caracteres (¿comillas sin cerrar?). Los lotes anteriores ya están guardados");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int nextChar = reader.read();
+                    if (nextChar == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (nextChar != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r') {
+                // se ignora: el fin de registro lo marca el \n
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        eof = true;
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
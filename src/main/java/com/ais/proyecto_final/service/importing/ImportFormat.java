@@ -0,0 +1,19 @@
+package com.ais.proyecto_final.service.importing;
+
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String APPLICATION_NDJSON_VALUE = MediaType.APPLICATION_NDJSON_VALUE;
+
+    /** Formato a partir de la cabecera Content-Type; cualquier cosa que no sea CSV se lee como NDJSON. */
+    public static ImportFormat fromContentType(String contentType) {
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
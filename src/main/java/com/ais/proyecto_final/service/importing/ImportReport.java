@@ -0,0 +1,75 @@
+package com.ais.proyecto_final.service.importing;
+
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.dto.importing.ImportRowErrorDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contadores y errores de una importación. Guarda como mucho {@code maxErrors} errores para que un fichero
+ * entero mal formado no acabe con la memoria; el resto solo cuenta en {@code failed}.
+ */
+public class ImportReport {
+
+    private final int maxErrors;
+    private final long startNanos = System.nanoTime();
+    private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+    private long rows;
+    private long created;
+    private long updated;
+    private long duplicates;
+    private long failed;
+
+    public ImportReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void rowRead() {
+        rows++;
+    }
+
+    public void created(long count) {
+        created += count;
+    }
+
+    public void updated(long count) {
+        updated += count;
+    }
+
+    public void duplicate() {
+        duplicates++;
+    }
+
+    public void failed(long line, String key, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportRowErrorDTO(line, key, message));
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long createdCount() {
+        return created;
+    }
+
+    public long failedCount() {
+        return failed;
+    }
+
+    public ImportResultDTO toResult() {
+        return ImportResultDTO.builder()
+                .rows(rows)
+                .created(created)
+                .updated(updated)
+                .duplicates(duplicates)
+                .failed(failed)
+                .errors(List.copyOf(errors))
+                .errorsTruncated(failed > errors.size())
+                .elapsedMs((System.nanoTime() - startNanos) / 1_000_000)
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.ais.proyecto_final.service.importing;
+
+/**
+ * Un registro leído del fichero: o trae valor o trae el error de lectura, nunca los dos.
+ *
+ * @param line línea donde empieza el registro, para el informe de errores
+ */
+public record ImportRow<T>(long line, T value, String error) {
+
+    public static <T> ImportRow<T> ok(long line, T value) {
+        return new ImportRow<>(line, value, null);
+    }
+
+    public static <T> ImportRow<T> failed(long line, String error) {
+        return new ImportRow<>(line, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
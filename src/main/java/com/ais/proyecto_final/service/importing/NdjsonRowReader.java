@@ -0,0 +1,100 @@
+package com.ais.proyecto_final.service.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * NDJSON: un objeto JSON por línea. Cada línea se parsea por separado, así una línea mal formada solo
+ * invalida ese registro y no el resto del fichero. Las líneas vacías se ignoran. Una línea de más de
+ * {@code maxLineChars} caracteres se descarta sin guardarla en memoria y se informa como registro fallido.
+ */
+public class NdjsonRowReader<T> implements RowReader<T> {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private final int maxLineChars;
+    private final StringBuilder text = new StringBuilder();
+    private long line;
+    private boolean oversized;
+
+    public NdjsonRowReader(Reader source, ObjectMapper objectMapper, Class<T> type, int maxLineChars) {
+        this.reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        this.objectReader = objectMapper.readerFor(type);
+        this.maxLineChars = maxLineChars;
+    }
+
+    @Override
+    public ImportRow<T> next() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (!oversized && text.isBlank());
+
+        if (oversized) {
+            return ImportRow.failed(line, "Línea demasiado larga: más de " + maxLineChars + " caracteres");
+        }
+        try {
+            T value = objectReader.readValue(text);
+            // el literal null es JSON válido pero no es un registro
+            if (value == null) {
+                return ImportRow.failed(line, "JSON no válido: se esperaba un objeto");
+            }
+            return ImportRow.ok(line, value);
+        } catch (JsonProcessingException e) {
+            return ImportRow.failed(line, "JSON no válido: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Avanza sin parsear hasta la línea {@code line} incluida, para reanudar una importación ya empezada.
+     */
+    public void skipThrough(long line) throws IOException {
+        while (this.line < line && readLine() != null) {
+            this.line++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // como BufferedReader.readLine pero con la línea acotada: lo que pase del límite se lee y se tira
+    private String readLine() throws IOException {
+        text.setLength(0);
+        oversized = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (c == '\n') {
+                break;
+            }
+            if (oversized) {
+                continue;
+            }
+            if (text.length() == maxLineChars) {
+                oversized = true;
+                text.setLength(0);
+                continue;
+            }
+            text.append((char) c);
+        }
+        if (!any) {
+            return null;
+        }
+        if (!text.isEmpty() && text.charAt(text.length() - 1) == '\r') {
+            text.setLength(text.length() - 1);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.ais.proyecto_final.service.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Lee un fichero de importación registro a registro, sin cargarlo entero en memoria.
+ * Un registro mal formado se devuelve como {@link ImportRow#failed} y la lectura continúa.
+ */
+public interface RowReader<T> extends Closeable {
+
+    /**
+     * @return el siguiente registro, o null al llegar al final del fichero
+     * @throws IOException si falla la lectura del flujo (no por un registro mal formado)
+     */
+    ImportRow<T> next() throws IOException;
+}
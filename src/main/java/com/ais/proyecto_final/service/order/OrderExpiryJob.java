@@ -0,0 +1,99 @@
+package com.ais.proyecto_final.service.order;
+
+import com.ais.proyecto_final.service.scheduling.SchedulerLockManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Cancela los pedidos que llevan más de app.orders.expiry.ttl-minutes en CREATED y devuelve su stock.
+ * <p>
+ * Cada ciclo procesa lotes de app.orders.expiry.chunk-size pedidos, cada uno en su propia transacción,
+ * hasta vaciar la cola o llegar a app.orders.expiry.max-chunks-per-run. Corre en todos los nodos pero
+ * solo el que obtiene el bloqueo "order-expiry" de scheduler_locks trabaja en cada ciclo.
+ * <p>
+ * Métricas: orders.expiry.cancelled (pedidos cancelados) y orders.expiry.run (duración de cada ciclo).
+ */
+@Component
+@ConditionalOnProperty(name = "app.orders.expiry.enabled", havingValue = "true")
+public class OrderExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryJob.class);
+    static final String LOCK_NAME = "order-expiry";
+
+    private final OrderService orderService;
+    private final SchedulerLockManager schedulerLockManager;
+    private final Duration ttl;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Duration lockFor;
+    private final Counter cancelledOrders;
+    private final Timer runTimer;
+
+    public OrderExpiryJob(OrderService orderService,
+                          SchedulerLockManager schedulerLockManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.orders.expiry.ttl-minutes:30}") long ttlMinutes,
+                          @Value("${app.orders.expiry.chunk-size:200}") int chunkSize,
+                          @Value("${app.orders.expiry.max-chunks-per-run:50}") int maxChunksPerRun,
+                          @Value("${app.orders.expiry.lock-seconds:300}") long lockSeconds) {
+        this.orderService = orderService;
+        this.schedulerLockManager = schedulerLockManager;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.lockFor = Duration.ofSeconds(lockSeconds);
+        this.cancelledOrders = Counter.builder("orders.expiry.cancelled")
+                .description("Pedidos sin pagar cancelados por caducidad")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("orders.expiry.run")
+                .description("Duración de cada ciclo de caducidad de pedidos")
+                .register(meterRegistry);
+        log.info("Caducidad de pedidos activa: CREATED con más de {} minutos", ttlMinutes);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.expiry.interval-ms:60000}")
+    public void expireUnpaidOrders() {
+        if (!schedulerLockManager.tryLock(LOCK_NAME, lockFor)) {
+            log.debug("Otro nodo tiene el bloqueo {}; se omite este ciclo", LOCK_NAME);
+            return;
+        }
+        try {
+            runTimer.record(this::run);
+        } finally {
+            schedulerLockManager.unlock(LOCK_NAME);
+        }
+    }
+
+    private void run() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        long start = System.nanoTime();
+        int total = 0;
+        int chunks = 0;
+        try {
+            int cancelled;
+            do {
+                cancelled = orderService.expireUnpaidOrders(cutoff, chunkSize);
+                cancelledOrders.increment(cancelled);
+                total += cancelled;
+                chunks++;
+            } while (cancelled == chunkSize && chunks < maxChunksPerRun);
+        } catch (RuntimeException e) {
+            // el lote fallido se deshizo entero; se reintenta en el siguiente ciclo
+            log.warn("Error cancelando pedidos caducados tras {} pedidos: {}", total, e.getMessage());
+        }
+        if (total > 0) {
+            long elapsedMs = Math.max(1, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            log.info("Caducados {} pedidos en {} lotes y {} ms ({} pedidos/s)", total, chunks, elapsedMs, total * 1000 / elapsedMs);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.ais.proyecto_final.service.order;
 
+import com.ais.proyecto_final.dto.order.BulkOrderStatusResultDTO;
+import com.ais.proyecto_final.dto.order.BulkOrderStatusUpdateDTO;
+import com.ais.proyecto_final.dto.order.OrderCursorPageDTO;
 import com.ais.proyecto_final.dto.order.OrderRequestDTO;
 import com.ais.proyecto_final.dto.order.OrderResponseDTO;
 import com.ais.proyecto_final.dto.order.OrderStatusUpdateDTO;
@@ -7,10 +10,26 @@ import com.ais.proyecto_final.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public interface OrderService {
     OrderResponseDTO createOrder(OrderRequestDTO orderRequest);
     Page<OrderResponseDTO> findAllOrders(Long customerId, LocalDate fromDate, LocalDate toDate, OrderStatus status, Pageable pageable);
+    OrderCursorPageDTO scrollOrders(Long customerId, LocalDate fromDate, LocalDate toDate, OrderStatus status, String cursor, int size);
     OrderResponseDTO getOrderById(Long id);
     OrderResponseDTO updateOrderStatus(Long id, OrderStatusUpdateDTO dto);
+
+    /**
+     * Cambia el estado de varios pedidos a la vez. Los pedidos inexistentes o con una transición no
+     * permitida se informan en el resultado sin impedir que se actualicen los demás.
+     */
+    BulkOrderStatusResultDTO bulkUpdateOrderStatus(BulkOrderStatusUpdateDTO dto);
+
+    /**
+     * Cancela hasta {@code limit} pedidos que siguen en CREATED desde antes de {@code cutoff} y devuelve
+     * su stock, todo en una transacción.
+     *
+     * @return número de pedidos cancelados
+     */
+    int expireUnpaidOrders(LocalDateTime cutoff, int limit);
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.ais.proyecto_final.service.order;
 
+import com.ais.proyecto_final.dto.order.BulkOrderStatusResultDTO;
+import com.ais.proyecto_final.dto.order.BulkOrderStatusUpdateDTO;
+import com.ais.proyecto_final.dto.order.OrderCursorPageDTO;
 import com.ais.proyecto_final.dto.order.OrderRequestDTO;
 import com.ais.proyecto_final.dto.order.OrderResponseDTO;
+import com.ais.proyecto_final.dto.order.OrderStatusChangedEventDTO;
 import com.ais.proyecto_final.dto.order.OrderStatusUpdateDTO;
 import com.ais.proyecto_final.entity.*;
 import com.ais.proyecto_final.exceptions.OrderBusinessException;
@@ -9,9 +13,10 @@ import com.ais.proyecto_final.mappers.OrderItemMapper;
 import com.ais.proyecto_final.mappers.OrderMapper;
 import com.ais.proyecto_final.repository.AddressRepository;
 import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.repository.OrderItemRepository;
 import com.ais.proyecto_final.repository.OrderRepository;
-import com.ais.proyecto_final.repository.ProductRepository;
 import com.ais.proyecto_final.repository.OrderSpecification;
+import com.ais.proyecto_final.service.outbox.OutboxService;
 import com.ais.proyecto_final.service.product.ProductService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,16 +24,26 @@ import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -36,14 +51,17 @@ public class OrderServiceImpl implements OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
     private final CustomerRepository customerRepository;
     private final AddressRepository addressRepository;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
     private final ProductService productService;
+    private final OutboxService outboxService;
 
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private static final Map<OrderStatus, Set<OrderStatus>> VALID_TRANSITIONS = Map.of(
             OrderStatus.CREATED, Set.of(OrderStatus.PAID, OrderStatus.CANCELLED),
             OrderStatus.PAID, Set.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED),
@@ -85,37 +103,43 @@ public class OrderServiceImpl implements OrderService {
 
         BigDecimal totalOrder = BigDecimal.ZERO;
 
+        // una misma referencia puede venir en varias líneas: se reserva la cantidad total
+        Map<Long, Integer> quantitiesByProduct = new LinkedHashMap<>();
+        for (var itemRequest : orderRequest.getItems()) {
+            quantitiesByProduct.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, Product> products;
         try {
-            for (var itemRequest : orderRequest.getItems()) {
-                log.info("Procesando producto. ID del producto: {}, Cantidad: {}", itemRequest.getProductId(), itemRequest.getQuantity());
-                Product product = productRepository.findById(itemRequest.getProductId())
-                        .orElseThrow(() -> {
-                            log.warn("Error en el pedido (aún no guardado). No se encontró el producto con ID: {}", itemRequest.getProductId());
-                            return new EntityNotFoundException("Producto " + itemRequest.getProductId() + " no encontrado.");
-                        });
+            products = productService.reserveStock(quantitiesByProduct);
+        } catch (OrderBusinessException | EntityNotFoundException e) {
+            log.warn("Deshaciendo la creación del pedido (aún no guardado). Motivo: {}", e.getMessage());
+            throw e;
+        }
 
-                productService.reduceStock(product.getId(), itemRequest.getQuantity());
+        for (var itemRequest : orderRequest.getItems()) {
+            log.info("Procesando producto. ID del producto: {}, Cantidad: {}", itemRequest.getProductId(), itemRequest.getQuantity());
+            Product product = products.get(itemRequest.getProductId());
 
-                OrderItem orderItem = orderItemMapper.toEntity(itemRequest);
-                orderItem.setOrder(newOrder);
-                orderItem.setProduct(product);
-                orderItem.setUnitPrice(product.getPrice());
+            OrderItem orderItem = orderItemMapper.toEntity(itemRequest);
+            orderItem.setOrder(newOrder);
+            orderItem.setProduct(product);
+            orderItem.setUnitPrice(product.getPrice());
+            orderItem.setStockPending(productService.isStockDeferred(product.getId()));
 
-                BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
-                totalOrder = totalOrder.add(lineTotal);
+            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
+            totalOrder = totalOrder.add(lineTotal);
 
-                newOrder.getItems().add(orderItem);
-            }
-        } catch (OrderBusinessException | EntityNotFoundException e) {
-            log.warn("Deshaciendo la creación del pedido (aún no guardado). Motivo: {}", e.getMessage());
-            throw e;
+            newOrder.getItems().add(orderItem);
         }
 
         newOrder.setTotal(totalOrder);
         Order savedOrder = orderRepository.save(newOrder);
         log.info("Pedido ID: {} creado con éxito. Total: {}", savedOrder.getId(), savedOrder.getTotal());
 
-        return orderMapper.toResponseDto(savedOrder);
+        OrderResponseDTO response = orderMapper.toResponseDto(savedOrder);
+        outboxService.record(OutboxService.ORDER_AGGREGATE, savedOrder.getId(), OutboxService.ORDER_CREATED, response);
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -126,14 +150,41 @@ public class OrderServiceImpl implements OrderService {
         Specification<Order> spec = OrderSpecification.filterOrders(customerId, fromDate, toDate, status);
         Page<Order> ordersPage = orderRepository.findAll(spec, pageable);
         log.info("Se encontraron {} pedidos en la página {}", ordersPage.getNumberOfElements(), pageable.getPageNumber());
-        return ordersPage.map(orderMapper::toResponseDto);
+        Map<Long, Order> withItems = fetchItems(ordersPage.getContent());
+        return ordersPage.map(order -> orderMapper.toResponseDto(withItems.getOrDefault(order.getId(), order)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public OrderCursorPageDTO scrollOrders(Long customerId, LocalDate fromDate, LocalDate toDate, OrderStatus status, String cursor, int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new OrderBusinessException("El tamaño de página debe estar entre 1 y " + MAX_SCROLL_SIZE + ".");
+        }
+        log.info("Recorriendo pedidos por cursor. Filtros: clienteId={}, desde={}, hasta={}, estado={}, tamaño={}",
+                customerId, fromDate, toDate, status, size);
+        Specification<Order> spec = OrderSpecification.filterOrders(customerId, fromDate, toDate, status);
+        Window<Order> window = orderRepository.scrollOrders(spec, decodeCursor(cursor), size);
+
+        Map<Long, Order> withItems = fetchItems(window.getContent());
+        List<OrderResponseDTO> content = window.getContent().stream()
+                .map(order -> orderMapper.toResponseDto(withItems.getOrDefault(order.getId(), order)))
+                .toList();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encodeCursor(window.getContent().get(window.size() - 1))
+                : null;
+        log.info("Se devolvieron {} pedidos. ¿Hay más?: {}", content.size(), window.hasNext());
+        return OrderCursorPageDTO.builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .build();
     }
 
     @Transactional(readOnly = true)
     @Override
     public OrderResponseDTO getOrderById(Long id) {
         log.info("Buscando el pedido con ID: {}", id);
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> {
                     log.warn("No se encontró el pedido con ID: {}", id);
                     return new EntityNotFoundException("Pedido " + id + " no encontrado.");
@@ -168,22 +219,158 @@ public class OrderServiceImpl implements OrderService {
 
         existingOrder.setStatus(newStatus);
         Order updated = orderRepository.save(existingOrder);
+        if (currentStatus != newStatus) {
+            recordStatusChange(existingOrder, currentStatus, newStatus, LocalDateTime.now());
+        }
         log.info("Pedido {} actualizado correctamente al estado {}", id, newStatus);
         return orderMapper.toResponseDto(updated);
     }
 
+    @Transactional
+    @Override
+    public BulkOrderStatusResultDTO bulkUpdateOrderStatus(BulkOrderStatusUpdateDTO dto) {
+        OrderStatus newStatus = dto.getStatus();
+        Set<Long> ids = new LinkedHashSet<>(dto.getOrderIds());
+        log.info("Cambio de estado masivo a {} para {} pedidos", newStatus, ids.size());
+
+        // una sola consulta bloquea todas las filas; las líneas de pedido no se cargan
+        Map<Long, Order> orders = orderRepository.lockAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<BulkOrderStatusResultDTO.Item> results = new ArrayList<>(ids.size());
+        List<Order> toUpdate = new ArrayList<>();
+        for (Long id : ids) {
+            Order order = orders.get(id);
+            if (order == null) {
+                results.add(bulkItem(id, BulkOrderStatusResultDTO.Outcome.NOT_FOUND, null, "Pedido " + id + " no encontrado."));
+            } else if (order.getStatus() == newStatus) {
+                results.add(bulkItem(id, BulkOrderStatusResultDTO.Outcome.UNCHANGED, order.getStatus(), null));
+            } else if (!isTransitionValid(order.getStatus(), newStatus)) {
+                results.add(bulkItem(id, BulkOrderStatusResultDTO.Outcome.INVALID_TRANSITION, order.getStatus(),
+                        String.format("Transición de estado inválida: de %s a %s.", order.getStatus(), newStatus)));
+            } else {
+                results.add(bulkItem(id, BulkOrderStatusResultDTO.Outcome.UPDATED, order.getStatus(), null));
+                toUpdate.add(order);
+            }
+        }
+
+        applyStatusChange(toUpdate, newStatus);
+        log.info("Cambio de estado masivo a {}: {} de {} pedidos actualizados", newStatus, toUpdate.size(), ids.size());
+
+        return BulkOrderStatusResultDTO.builder()
+                .status(newStatus)
+                .updated(toUpdate.size())
+                .results(results)
+                .build();
+    }
+
+    @Transactional
+    @Override
+    public int expireUnpaidOrders(LocalDateTime cutoff, int limit) {
+        List<Long> candidates = orderRepository.findIdsByStatusAndOrderDateBefore(OrderStatus.CREATED, cutoff, PageRequest.of(0, limit));
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        // se vuelve a comprobar con la fila bloqueada: el pedido pudo pagarse entre la búsqueda y el bloqueo
+        List<Order> expired = orderRepository.lockAllByIdIn(candidates).stream()
+                .filter(order -> order.getStatus() == OrderStatus.CREATED && order.getOrderDate().isBefore(cutoff))
+                .toList();
+        applyStatusChange(expired, OrderStatus.CANCELLED);
+        log.info("Cancelados {} pedidos sin pagar anteriores a {}", expired.size(), cutoff);
+        return expired.size();
+    }
+
     private boolean isTransitionValid(OrderStatus current, OrderStatus next) {
         if (current == next) return true;
         return VALID_TRANSITIONS.getOrDefault(current, Set.of()).contains(next);
     }
 
+    // UPDATE único para todos los pedidos; a CANCELLED solo se llega desde CREATED o PAID, así que todos devuelven stock
+    private void applyStatusChange(List<Order> orders, OrderStatus newStatus) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> ids = orders.stream().map(Order::getId).toList();
+        if (newStatus == OrderStatus.CANCELLED) {
+            returnStockForOrders(ids);
+        }
+        LocalDateTime changedAt = LocalDateTime.now();
+        orders.forEach(order -> recordStatusChange(order, order.getStatus(), newStatus, changedAt));
+        orderRepository.updateStatus(ids, newStatus);
+    }
+
+    private void returnStockForOrders(List<Long> orderIds) {
+        Map<Long, Integer> quantitiesByProduct = new LinkedHashMap<>();
+        for (OrderItemRepository.ProductQuantity line : orderItemRepository.sumQuantityByProductForOrders(orderIds)) {
+            quantitiesByProduct.put(line.getProductId(), Math.toIntExact(line.getQuantity()));
+        }
+        log.info("Devolviendo stock de {} productos ({} pedidos cancelados)", quantitiesByProduct.size(), orderIds.size());
+        productService.returnStockBatch(quantitiesByProduct);
+    }
+
+    private void recordStatusChange(Order order, OrderStatus previousStatus, OrderStatus newStatus, LocalDateTime changedAt) {
+        outboxService.record(OutboxService.ORDER_AGGREGATE, order.getId(), OutboxService.ORDER_STATUS_CHANGED,
+                OrderStatusChangedEventDTO.builder()
+                        .orderId(order.getId())
+                        .customerId(order.getCustomer() != null ? order.getCustomer().getId() : null)
+                        .previousStatus(previousStatus)
+                        .status(newStatus)
+                        .changedAt(changedAt)
+                        .build());
+    }
+
+    private BulkOrderStatusResultDTO.Item bulkItem(Long orderId, BulkOrderStatusResultDTO.Outcome outcome,
+                                                   OrderStatus previousStatus, String message) {
+        return BulkOrderStatusResultDTO.Item.builder()
+                .orderId(orderId)
+                .outcome(outcome)
+                .previousStatus(previousStatus)
+                .message(message)
+                .build();
+    }
+
+    // el producto de cada línea es un proxy LAZY: getId() no lo carga, así que solo se leen las líneas
     private void returnStockToInventory(Order order) {
+        Map<Long, Integer> quantitiesByProduct = new LinkedHashMap<>();
         for (OrderItem item : order.getItems()) {
             Product product = item.getProduct();
             if (product != null) {
-                log.info("Devolviendo {} unidades del producto {} (Pedido {})", item.getQuantity(), product.getId(), order.getId());
-                productService.returnStock(product.getId(), item.getQuantity());
+                quantitiesByProduct.merge(product.getId(), item.getQuantity(), Integer::sum);
             }
         }
+        log.info("Devolviendo stock de {} productos (Pedido {})", quantitiesByProduct.size(), order.getId());
+        productService.returnStockBatch(quantitiesByProduct);
+    }
+
+    // carga las líneas de todos los pedidos en una consulta en vez de una por pedido al mapear
+    private Map<Long, Order> fetchItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = orders.stream().map(Order::getId).toList();
+        return orderRepository.findWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+    }
+
+    // el cursor es opaco para el cliente: base64 de "orderDate|id" del último pedido devuelto
+    private String encodeCursor(Order last) {
+        String raw = last.getOrderDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ScrollPosition decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            LocalDateTime orderDate = LocalDateTime.parse(raw.substring(0, separator));
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return ScrollPosition.forward(Map.of("orderDate", orderDate, "id", id));
+        } catch (RuntimeException e) {
+            log.warn("Cursor de paginación no válido: {}", cursor);
+            throw new OrderBusinessException("El cursor de paginación no es válido.");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,421 @@
+package com.ais.proyecto_final.service.order;
+
+import com.ais.proyecto_final.dto.order.OrderStatusChangedEventDTO;
+import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.entity.OutboxEvent;
+import com.ais.proyecto_final.repository.OutboxEventRepository;
+import com.ais.proyecto_final.service.outbox.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difunde por SSE los cambios de estado de los pedidos leyendo la tabla outbox.
+ * <p>
+ * Cada instancia sigue la tabla por su cuenta con una lectura sin bloqueos (no reclama lotes ni marca nada
+ * como publicado, así que no compite con el relay ni cuenta como sink): cada app.orders.stream.poll-ms pide
+ * los eventos creados desde su cursor menos app.orders.stream.commit-lag-ms y descarta los ya vistos. Ese
+ * margen cubre las transacciones que confirman tarde y los ids de secuencia por bloques, que no llegan en
+ * orden.
+ * <p>
+ * Un evento que tarde más que el margen en confirmarse ya no entra en esa lectura. Para no perderlo en
+ * silencio, cada consulta revisa además los ids de los app.orders.stream.gap-check-ms anteriores a la
+ * ventana: si aparece uno que no se difundió, hay un hueco. Todos los suscriptores reciben un "reset" y la
+ * secuencia salta, así que nadie puede reanudar desde antes del hueco sin resincronizar. Un evento que
+ * confirme todavía más tarde no se detecta.
+ * <p>
+ * Cada suscriptor tiene una cola acotada (app.orders.stream.buffer-size) que vacía un pool pequeño de hilos
+ * de envío, así un cliente lento nunca frena al relay. Si la cola se llena se aplica la política
+ * app.orders.stream.overflow-policy: DROP_OLDEST descarta los eventos más antiguos de ese suscriptor y
+ * DISCONNECT cierra su conexión para que reconecte con Last-Event-ID.
+ * <p>
+ * El id SSE no es el del outbox sino "epoch-secuencia": la secuencia la asigna este stream en el orden en
+ * que difunde los eventos y el epoch identifica a la instancia. Los últimos app.orders.stream.replay-size
+ * eventos se guardan para reanudar desde Last-Event-ID; si el cliente pide una secuencia que ya salió de
+ * ese histórico, o un id de otra instancia o de antes de un reinicio, recibe un evento "reset" y debe
+ * resincronizar con GET /api/orders. Al reconectar contra otro nodo siempre se pasa por ese reset.
+ */
+@Component
+public class OrderStatusStream {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusStream.class);
+
+    public enum OverflowPolicy { DROP_OLDEST, DISCONNECT }
+
+    // id: secuencia del stream; outboxId solo sirve para no difundir dos veces el mismo evento
+    record StreamEvent(long id, long outboxId, OrderStatus status, String json) {
+    }
+
+    interface EventSender {
+        void send(StreamEvent event) throws IOException;
+
+        void reset() throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void complete();
+    }
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration commitLag;
+    private final Duration gapCheck;
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final int bufferSize;
+    private final int replaySize;
+    private final OverflowPolicy overflowPolicy;
+    private final long timeoutMs;
+    private final ExecutorService senders;
+    private final Counter droppedEvents;
+    private final Counter gaps;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<StreamEvent> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // ids del outbox ya difundidos dentro de la ventana de lectura y la de huecos, con su createdAt para podarlos
+    private final Map<Long, LocalDateTime> seen = new LinkedHashMap<>();
+    private LocalDateTime cursor = LocalDateTime.now();
+    // lo creado antes de arrancar no se difundió nunca: no cuenta como hueco
+    private final LocalDateTime firstFrom;
+    private long lastSequence;
+    private long lastEvictedSequence;
+
+    public OrderStatusStream(OutboxEventRepository outboxEventRepository,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.orders.stream.commit-lag-ms:10000}") long commitLagMs,
+                             @Value("${app.orders.stream.gap-check-ms:300000}") long gapCheckMs,
+                             @Value("${app.orders.stream.buffer-size:256}") int bufferSize,
+                             @Value("${app.orders.stream.replay-size:1000}") int replaySize,
+                             @Value("${app.orders.stream.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                             @Value("${app.orders.stream.timeout-ms:1800000}") long timeoutMs,
+                             @Value("${app.orders.stream.sender-threads:2}") int senderThreads) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.commitLag = Duration.ofMillis(commitLagMs);
+        this.gapCheck = Duration.ofMillis(gapCheckMs);
+        this.firstFrom = cursor.minus(commitLag);
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.overflowPolicy = overflowPolicy;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        // una tarea como mucho por suscriptor en cola: la cola del pool no necesita límite propio
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-stream-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.droppedEvents = Counter.builder("orders.stream.dropped")
+                .description("Eventos descartados por suscriptores lentos")
+                .register(meterRegistry);
+        this.gaps = Counter.builder("orders.stream.gaps")
+                .description("Eventos confirmados demasiado tarde para difundirlos")
+                .register(meterRegistry);
+        Gauge.builder("orders.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Abre una suscripción SSE. Con {@code lastEventId} se reenvían antes los eventos posteriores que
+     * sigan en el histórico; con {@code status} solo se envían las transiciones hacia ese estado.
+     */
+    public SseEmitter subscribe(String lastEventId, OrderStatus status) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = subscribe(lastEventId, status, new EmitterSender(emitter));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        log.info("Nueva suscripción al stream de pedidos (estado={}, lastEventId={}). Suscriptores: {}",
+                status, lastEventId, subscribers.size());
+        return emitter;
+    }
+
+    Subscriber subscribe(String lastEventId, OrderStatus status, EventSender sender) {
+        Subscriber subscriber = new Subscriber(status, sender);
+        synchronized (lock) {
+            if (lastEventId != null) {
+                long lastSeen = sequenceOf(lastEventId);
+                if (lastSeen < lastEvictedSequence || lastSeen > lastSequence) {
+                    subscriber.resetDue = true;
+                } else {
+                    replay.stream()
+                            .filter(event -> event.id() > lastSeen && subscriber.accepts(event))
+                            .forEach(subscriber::offer);
+                }
+            }
+            if (!subscriber.closed) {
+                subscribers.add(subscriber);
+            }
+        }
+        schedule(subscriber);
+        return subscriber;
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.stream.poll-ms:1000}")
+    public void poll() {
+        LocalDateTime from;
+        LocalDateTime gapFrom;
+        synchronized (lock) {
+            from = cursor.minus(commitLag);
+            gapFrom = from.minus(gapCheck);
+            if (gapFrom.isBefore(firstFrom)) {
+                gapFrom = firstFrom;
+            }
+            // lo anterior a la ventana de huecos ya no puede volver en ninguna consulta
+            Iterator<LocalDateTime> createdAts = seen.values().iterator();
+            while (createdAts.hasNext() && createdAts.next().isBefore(gapFrom)) {
+                createdAts.remove();
+            }
+        }
+        try {
+            if (gapFrom.isBefore(from)) {
+                checkGaps(outboxEventRepository.findIdsCreatedBetween(OutboxService.ORDER_STATUS_CHANGED, gapFrom, from), from);
+            }
+            append(outboxEventRepository.findCreatedAfter(OutboxService.ORDER_STATUS_CHANGED, from));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer el outbox para el stream de pedidos: {}", e.getMessage());
+        }
+    }
+
+    void append(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (!OutboxService.ORDER_STATUS_CHANGED.equals(event.getEventType())) {
+                continue;
+            }
+            LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+            synchronized (lock) {
+                // la ventana de lectura se solapa entre consultas: cada evento vuelve varias veces
+                if (seen.putIfAbsent(event.getId(), createdAt) != null) {
+                    continue;
+                }
+                if (createdAt.isAfter(cursor)) {
+                    cursor = createdAt;
+                }
+                StreamEvent streamEvent = new StreamEvent(++lastSequence, event.getId(), statusOf(event), event.getPayload());
+                replay.addLast(streamEvent);
+                if (replay.size() > replaySize) {
+                    lastEvictedSequence = replay.removeFirst().id();
+                }
+                for (Subscriber subscriber : subscribers) {
+                    if (subscriber.accepts(streamEvent)) {
+                        subscriber.offer(streamEvent);
+                    }
+                }
+            }
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    // ids que ya quedaron por detrás de la ventana de lectura: si alguno no se difundió, llegó tarde
+    void checkGaps(List<Long> outboxIds, LocalDateTime from) {
+        int missed = 0;
+        synchronized (lock) {
+            for (Long outboxId : outboxIds) {
+                if (seen.putIfAbsent(outboxId, from) == null) {
+                    missed++;
+                }
+            }
+            if (missed == 0) {
+                return;
+            }
+            // la secuencia salta: cualquier Last-Event-ID anterior al hueco queda fuera del histórico
+            replay.clear();
+            lastEvictedSequence = ++lastSequence;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.queue.clear();
+                subscriber.resetDue = true;
+            }
+        }
+        gaps.increment(missed);
+        log.warn("{} eventos de pedido se confirmaron después de app.orders.stream.commit-lag-ms y no se difundieron: "
+                + "se envía reset a {} suscriptores", missed, subscribers.size());
+        subscribers.forEach(this::schedule);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(this::close);
+        senders.shutdown();
+    }
+
+    String sseId(StreamEvent event) {
+        return epoch + "-" + event.id();
+    }
+
+    // "epoch-secuencia"; un id de otra instancia o de un arranque anterior no sirve para reanudar
+    private long sequenceOf(String lastEventId) {
+        String prefix = epoch + "-";
+        if (lastEventId.startsWith(prefix)) {
+            try {
+                return Long.parseLong(lastEventId.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                // se trata como desconocido
+            }
+        }
+        return -1;
+    }
+
+    private OrderStatus statusOf(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), OrderStatusChangedEventDTO.class).getStatus();
+        } catch (JsonProcessingException e) {
+            log.warn("Payload no válido en el evento {}: {}", event.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.hasWork() && subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                if (subscriber.resetDue) {
+                    subscriber.resetDue = false;
+                    subscriber.sender.reset();
+                }
+                StreamEvent event;
+                while ((event = subscriber.queue.poll()) != null) {
+                    subscriber.sender.send(event);
+                }
+                if (subscriber.heartbeatDue) {
+                    subscriber.heartbeatDue = false;
+                    subscriber.sender.heartbeat();
+                }
+                subscriber.scheduled.set(false);
+                // un publish pudo encolar justo después del último poll sin llegar a programar el envío
+            } while (subscriber.hasWork() && subscriber.scheduled.compareAndSet(false, true));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Suscriptor del stream de pedidos desconectado: {}", e.getMessage());
+            close(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed) {
+            return;
+        }
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.sender.complete();
+    }
+
+    final class Subscriber {
+        private final OrderStatus status;
+        private final EventSender sender;
+        private final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean resetDue;
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+
+        private Subscriber(OrderStatus status, EventSender sender) {
+            this.status = status;
+            this.sender = sender;
+        }
+
+        private boolean accepts(StreamEvent event) {
+            return status == null || status == event.status();
+        }
+
+        private boolean hasWork() {
+            return !closed && (resetDue || heartbeatDue || !queue.isEmpty());
+        }
+
+        private void offer(StreamEvent event) {
+            if (closed || queue.offer(event)) {
+                return;
+            }
+            droppedEvents.increment();
+            if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                log.warn("Suscriptor del stream de pedidos sin espacio en su cola: se desconecta");
+                close(this);
+                return;
+            }
+            // DROP_OLDEST: se pierde el evento más antiguo pendiente de este suscriptor
+            queue.poll();
+            if (!queue.offer(event)) {
+                droppedEvents.increment();
+            }
+        }
+    }
+
+    private final class EmitterSender implements EventSender {
+        private final SseEmitter emitter;
+
+        private EmitterSender(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void send(StreamEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(sseId(event))
+                    .name("order-status")
+                    .data(event.json(), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void reset() throws IOException {
+            emitter.send(SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("ping"));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
+}
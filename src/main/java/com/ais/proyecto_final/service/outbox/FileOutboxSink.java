@@ -0,0 +1,51 @@
+package com.ais.proyecto_final.service.outbox;
+
+import com.ais.proyecto_final.dto.outbox.OutboxEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Añade los eventos a un fichero NDJSON (un evento por línea). Pensado para pruebas locales y para
+ * consumidores que leen el fichero con tail.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.file-sink.path")
+public class FileOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(FileOutboxSink.class);
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${app.outbox.file-sink.path}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+        log.info("Los eventos del outbox se escribirán en {}", path.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEventDTO> events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEventDTO event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron escribir los eventos en " + path, e);
+        }
+    }
+}
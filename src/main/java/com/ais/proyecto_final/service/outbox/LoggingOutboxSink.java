@@ -0,0 +1,25 @@
+package com.ais.proyecto_final.service.outbox;
+
+import com.ais.proyecto_final.dto.outbox.OutboxEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// para desarrollo local: escribe cada evento en el log
+@Component
+@ConditionalOnProperty(name = "app.outbox.log-sink.enabled", havingValue = "true")
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void publish(List<OutboxEventDTO> events) {
+        for (OutboxEventDTO event : events) {
+            log.info("Evento {} #{} de {} {}: {}", event.getEventType(), event.getId(),
+                    event.getAggregateType(), event.getAggregateId(), event.getPayload());
+        }
+    }
+}
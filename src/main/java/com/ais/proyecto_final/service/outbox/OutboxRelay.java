@@ -0,0 +1,104 @@
+package com.ais.proyecto_final.service.outbox;
+
+import com.ais.proyecto_final.dto.outbox.OutboxEventDTO;
+import com.ais.proyecto_final.entity.OutboxEvent;
+import com.ais.proyecto_final.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drena la tabla outbox hacia los {@link OutboxSink} configurados, en lotes de app.outbox.batch-size.
+ * <p>
+ * Cada lote se bloquea con SKIP LOCKED, se entrega a todos los sinks y se marca como publicado en la misma
+ * transacción: si un sink falla, la transacción se deshace y el lote se reintenta en el siguiente ciclo.
+ * Sin sinks configurados el relay no hace nada, para no marcar como publicados eventos que nadie recibió.
+ * En ese caso la purga borra por antigüedad también los no publicados: nadie los va a publicar y solo el
+ * stream SSE los lee, dentro de su ventana reciente.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       TransactionTemplate transactionTemplate,
+                       List<OutboxSink> sinks,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = List.copyOf(sinks);
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+        if (this.sinks.isEmpty()) {
+            log.info("No hay sinks de outbox configurados: los eventos no se publican y se purgan a las {} horas", retentionHours);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        if (sinks.isEmpty()) {
+            return;
+        }
+        try {
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo publicar el lote de eventos del outbox, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 30 * * * *}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        // con sinks, un evento sin publicar espera a que el sink vuelva; sin ellos se quedaría para siempre
+        int deleted = transactionTemplate.execute(status -> sinks.isEmpty()
+                ? outboxEventRepository.deleteCreatedBefore(cutoff)
+                : outboxEventRepository.deletePublishedBefore(cutoff));
+        if (deleted > 0) {
+            log.info("Eliminados {} eventos antiguos del outbox", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublished(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEventDTO> events = batch.stream().map(OutboxRelay::toDto).toList();
+        for (OutboxSink sink : sinks) {
+            sink.publish(events);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(event -> event.setPublishedAt(now));
+        log.info("Publicados {} eventos del outbox (ids {}..{})", batch.size(), batch.get(0).getId(), batch.get(batch.size() - 1).getId());
+        return batch.size();
+    }
+
+    private static OutboxEventDTO toDto(OutboxEvent event) {
+        return OutboxEventDTO.builder()
+                .id(event.getId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .eventType(event.getEventType())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+}
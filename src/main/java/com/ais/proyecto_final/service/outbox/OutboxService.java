@@ -0,0 +1,14 @@
+package com.ais.proyecto_final.service.outbox;
+
+public interface OutboxService {
+
+    String ORDER_AGGREGATE = "Order";
+    String ORDER_CREATED = "OrderCreated";
+    String ORDER_STATUS_CHANGED = "OrderStatusChanged";
+
+    /**
+     * Guarda el evento en la tabla outbox dentro de la transacción en curso, que debe existir:
+     * el evento se confirma o se descarta junto con el cambio que lo produce.
+     */
+    void record(String aggregateType, Long aggregateId, String eventType, Object payload);
+}
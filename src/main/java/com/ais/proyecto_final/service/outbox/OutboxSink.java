@@ -0,0 +1,14 @@
+package com.ais.proyecto_final.service.outbox;
+
+import com.ais.proyecto_final.dto.outbox.OutboxEventDTO;
+
+import java.util.List;
+
+/**
+ * Destino de los eventos del outbox. La entrega es "al menos una vez": si un sink falla, el lote entero
+ * se reintenta en el siguiente ciclo del relay, así que los consumidores deben deduplicar por id.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEventDTO> events);
+}
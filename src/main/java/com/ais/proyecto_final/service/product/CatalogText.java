@@ -0,0 +1,26 @@
+package com.ais.proyecto_final.service.product;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización común de los índices en memoria del catálogo: minúsculas y sin acentos, igual que compara
+ * la collation por defecto de MySQL (accent-insensitive), así "mecanico" encuentra "Mecánico" tanto en
+ * memoria como en el LIKE.
+ */
+final class CatalogText {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private CatalogText() {
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
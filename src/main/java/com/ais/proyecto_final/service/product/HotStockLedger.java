@@ -0,0 +1,235 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.entity.Product;
+import com.ais.proyecto_final.repository.OrderItemRepository;
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Modo "flash sale" para productos calientes (app.stock.hot-products).
+ * <p>
+ * El stock disponible de esos productos vive en un contador en memoria sin bloqueos, sembrado con
+ * {@code products.stock} menos lo pendiente de volcar, y los pedidos reservan contra él sin tocar la fila
+ * de products. Las líneas de pedido se guardan con {@code stockPending = true} y un proceso periódico las
+ * vuelca en lotes: marca las líneas, suma sus cantidades y las resta de products en la misma transacción.
+ * Como lo pendiente se deduce de filas ya confirmadas, una caída del proceso no pierde descuentos.
+ * <p>
+ * Cada contador lleva además las reservas en vuelo (hechas pero con la transacción aún sin terminar). Al
+ * editar el stock el contador se vuelve a sembrar en su sitio, bajo su cerrojo de escritura, restando también
+ * esas reservas; las reservas toman el cerrojo de lectura, así que entre ellas siguen sin bloquearse.
+ * <p>
+ * El contador es local a cada instancia: el modo asume que el tráfico de un producto caliente lo atiende
+ * un único nodo.
+ */
+@Component
+public class HotStockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockLedger.class);
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCatalogCache productCatalogCache;
+    private final Set<Long> hotProductIds;
+    private final int flushBatchSize;
+    private final ConcurrentMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public HotStockLedger(ProductRepository productRepository,
+                          OrderItemRepository orderItemRepository,
+                          TransactionTemplate transactionTemplate,
+                          ProductCatalogCache productCatalogCache,
+                          @Value("${app.stock.hot-products:}") List<Long> hotProductIds,
+                          @Value("${app.stock.hot-flush-batch-size:500}") int flushBatchSize) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.productCatalogCache = productCatalogCache;
+        this.hotProductIds = Set.copyOf(hotProductIds);
+        this.flushBatchSize = flushBatchSize;
+        if (!this.hotProductIds.isEmpty()) {
+            log.info("Modo stock caliente activo para los productos: {}", this.hotProductIds);
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return hotProductIds.contains(productId);
+    }
+
+    /**
+     * Reserva contra el contador en memoria. Si la transacción en curso no llega a confirmarse,
+     * la cantidad se devuelve al contador automáticamente.
+     */
+    public boolean reserve(Long productId, int quantity) {
+        Counter counter = counterFor(productId);
+        counter.lock.readLock().lock();
+        try {
+            int current;
+            do {
+                current = counter.available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!counter.available.compareAndSet(current, current - quantity));
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                counter.inFlight.addAndGet(quantity);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        counter.lock.readLock().lock();
+                        try {
+                            // confirmada, la reserva ya cuenta como línea pendiente en la BD
+                            counter.inFlight.addAndGet(-quantity);
+                            if (status != STATUS_COMMITTED) {
+                                counter.available.addAndGet(quantity);
+                            }
+                        } finally {
+                            counter.lock.readLock().unlock();
+                        }
+                    }
+                });
+            }
+            return true;
+        } finally {
+            counter.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve unidades al contador (p. ej. al cancelar un pedido), una vez confirmada la transacción.
+     */
+    public void release(Long productId, int quantity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToCounter(productId, quantity);
+                }
+            });
+        } else {
+            addToCounter(productId, quantity);
+        }
+    }
+
+    /**
+     * Vuelve a sembrar el contador desde la base de datos tras editar el stock, una vez confirmada la
+     * transacción en curso. Las reservas en vuelo se restan: si alguna confirma mientras tanto puede contarse
+     * dos veces, lo que deja el contador corto hasta la siguiente siembra, nunca por encima del stock real.
+     */
+    public void reseed(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reseedNow(productId);
+                }
+            });
+        } else {
+            reseedNow(productId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock.hot-flush-interval-ms:1000}")
+    public void flush() {
+        for (Long productId : hotProductIds) {
+            try {
+                int settled;
+                do {
+                    settled = transactionTemplate.execute(status -> settleBatch(productId));
+                } while (settled == flushBatchSize);
+            } catch (RuntimeException e) {
+                // otra instancia volcó las mismas líneas o la BD no está disponible: se reintenta en el siguiente ciclo
+                log.warn("No se pudo volcar el stock pendiente del producto {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private int settleBatch(Long productId) {
+        List<Long> itemIds = orderItemRepository.findPendingStockItemIds(productId, PageRequest.of(0, flushBatchSize));
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        // marcar primero bloquea las filas: si otro volcado ya las tomó, se aborta sin restar dos veces
+        if (orderItemRepository.markStockSettled(itemIds) != itemIds.size()) {
+            throw new IllegalStateException("Líneas de pedido volcadas concurrentemente");
+        }
+        long quantity = orderItemRepository.sumQuantityByIdIn(itemIds);
+        productRepository.subtractStock(productId, Math.toIntExact(quantity));
+        productCatalogCache.evict(productId);
+        log.info("Volcadas {} unidades de {} líneas al producto {}", quantity, itemIds.size(), productId);
+        return itemIds.size();
+    }
+
+    private Counter counterFor(Long productId) {
+        return counters.computeIfAbsent(productId, id -> new Counter(seed(id)));
+    }
+
+    private void reseedNow(Long productId) {
+        Counter counter = counters.get(productId);
+        // sin contador no hay reservas en vuelo: la primera reserva ya siembra con el valor nuevo
+        if (counter == null) {
+            return;
+        }
+        counter.lock.writeLock().lock();
+        try {
+            int inFlight = counter.inFlight.get();
+            counter.available.set(Math.max(0, seed(productId) - inFlight));
+            if (inFlight > 0) {
+                log.info("Descontadas {} unidades en vuelo del contador del producto {}", inFlight, productId);
+            }
+        } finally {
+            counter.lock.writeLock().unlock();
+        }
+    }
+
+    private int seed(Long productId) {
+        int stock = productRepository.findById(productId)
+                .filter(Product::isActive)
+                .map(Product::getStock)
+                .orElse(0);
+        long pending = orderItemRepository.sumPendingStockQuantity(productId);
+        int seeded = (int) Math.max(0, stock - pending);
+        log.info("Contador de stock del producto {} sembrado con {} unidades (stock {} - pendiente {})", productId, seeded, stock, pending);
+        return seeded;
+    }
+
+    private void addToCounter(Long productId, int quantity) {
+        Counter counter = counters.get(productId);
+        // sin contador no hay nada que corregir: la próxima siembra ya lee el valor de la BD
+        if (counter == null) {
+            return;
+        }
+        counter.lock.readLock().lock();
+        try {
+            counter.available.addAndGet(quantity);
+        } finally {
+            counter.lock.readLock().unlock();
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicInteger available;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private Counter(int available) {
+            this.available = new AtomicInteger(available);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ais.proyecto_final.service.product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Trie radix (aristas comprimidas) de claves a ids. Una cadena de nodos con un solo hijo se guarda como
+ * una única arista, así el número de nodos crece con el número de claves y no con el de caracteres.
+ * <p>
+ * No es thread-safe: {@link ProductAutocomplete} lo protege con su propio lock.
+ */
+final class PrefixTrie {
+
+    private final Node root = new Node("");
+
+    void insert(String key, Long id) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            char c = key.charAt(i);
+            Node child = node.child(c);
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                node.putChild(leaf);
+                node = leaf;
+                break;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // la clave se separa a mitad de la arista: se parte en dos
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.putChild(child);
+                node.putChild(split);
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.ids == null) {
+            node.ids = new TreeSet<>();
+        }
+        node.ids.add(id);
+    }
+
+    void remove(String key, Long id) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        if (node.ids == null || !node.ids.remove(id)) {
+            return;
+        }
+        if (node.ids.isEmpty()) {
+            node.ids = null;
+        }
+
+        // poda hacia arriba: fuera los nodos vacíos y se vuelven a unir las aristas que quedan con un solo hijo
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (current.ids != null) {
+                return;
+            }
+            int children = current.children == null ? 0 : current.children.size();
+            if (children == 0) {
+                parent.children.remove(current.label.charAt(0));
+                if (parent.children.isEmpty()) {
+                    parent.children = null;
+                }
+            } else if (children == 1) {
+                Node only = current.children.values().iterator().next();
+                only.label = current.label + only.label;
+                parent.putChild(only);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hasta {@code limit} ids cuyas claves empiezan por {@code prefix}, las completaciones más cortas primero
+     * y en orden alfabético a igual longitud. Solo recorre los nodos necesarios para llenar el resultado.
+     */
+    Set<Long> complete(String prefix, int limit) {
+        Set<Long> result = new LinkedHashSet<>();
+        Node node = root;
+        int i = 0;
+        String path = "";
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return result;
+            }
+            int remaining = prefix.length() - i;
+            if (remaining < child.label.length()) {
+                // el prefijo termina dentro de la arista
+                if (!child.label.startsWith(prefix.substring(i))) {
+                    return result;
+                }
+            } else if (!prefix.startsWith(child.label, i)) {
+                return result;
+            }
+            path += child.label;
+            node = child;
+            i += child.label.length();
+        }
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                Comparator.comparingInt((Candidate c) -> c.key.length()).thenComparing(c -> c.key));
+        queue.add(new Candidate(path, node));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate next = queue.poll();
+            if (next.node.ids != null) {
+                for (Long id : next.node.ids) {
+                    result.add(id);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+            if (next.node.children != null) {
+                for (Node child : next.node.children.values()) {
+                    queue.add(new Candidate(next.key + child.label, child));
+                }
+            }
+        }
+        return result;
+    }
+
+    int nodeCount() {
+        return count(root);
+    }
+
+    private static int count(Node node) {
+        int total = 1;
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                total += count(child);
+            }
+        }
+        return total;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private record Candidate(String key, Node node) {
+    }
+
+    private static final class Node {
+        private String label;
+        // se crean bajo demanda: la mayoría de nodos son hojas o no terminan ninguna clave
+        private Map<Character, Node> children;
+        private Set<Long> ids;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        void putChild(Node child) {
+            if (children == null) {
+                children = new TreeMap<>();
+            }
+            children.put(child.label.charAt(0), child);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.product.ProductSuggestionDTO;
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sugerencias para la caja de búsqueda a partir de un {@link PrefixTrie} sobre los productos activos.
+ * Cada producto se indexa por su sku, por su nombre completo y por el nombre a partir de cada palabra,
+ * así "mec" encuentra "Teclado mecánico". Claves y prefijos se normalizan con {@link CatalogText}.
+ * <p>
+ * Igual que {@link ProductNameIndex}, se construye al arrancar, sigue los {@link ProductChangedEvent}
+ * confirmados y recibe de {@link ProductIndexRefresher} los cambios de otras instancias, la reconstrucción
+ * periódica y los reintentos si la primera construcción falla. Hasta que está listo no devuelve sugerencias:
+ * la caja de búsqueda lanza una petición por tecla y no queremos que esas peticiones acaben en la base de datos.
+ */
+@Component
+public class ProductAutocomplete {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAutocomplete.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Catalog catalog = new Catalog();
+    private boolean ready;
+    private List<ProductChangedEvent> pendingDuringRebuild;
+
+    public ProductAutocomplete(ProductRepository productRepository, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Catalog rebuilt = new Catalog();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var labels = productRepository.streamActiveLabels()) {
+                    labels.forEach(row -> rebuilt.put(row.getId(), row.getSku(), row.getName()));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el índice de autocompletado: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(event -> apply(rebuilt, event));
+            pendingDuringRebuild = null;
+            catalog = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de autocompletado construido: {} productos, {} nodos en {} ms",
+                rebuilt.products.size(), rebuilt.trie.nodeCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(catalog, event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hasta {@code limit} productos activos cuyo sku, nombre o alguna palabra del nombre empieza por
+     * {@code prefix}. Primero las coincidencias más completas (la clave más corta) y después por orden alfabético.
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = CatalogText.normalize(prefix).strip();
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return List.of();
+            }
+            List<ProductSuggestionDTO> suggestions = new ArrayList<>(limit);
+            for (Long id : catalog.trie.complete(normalized, limit)) {
+                suggestions.add(catalog.products.get(id));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(Catalog target, ProductChangedEvent event) {
+        ProductSuggestionDTO current = target.products.get(event.id());
+        // el refresco periódico repite cambios ya aplicados
+        if (event.active() && current != null
+                && Objects.equals(current.getSku(), event.sku()) && Objects.equals(current.getName(), event.name())) {
+            return;
+        }
+        target.remove(event.id());
+        if (event.active()) {
+            target.put(event.id(), event.sku(), event.name());
+        }
+    }
+
+    // sku, nombre completo y nombre desde el inicio de cada palabra
+    private static Set<String> keys(String sku, String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (sku != null && !sku.isBlank()) {
+            keys.add(CatalogText.normalize(sku));
+        }
+        String normalized = CatalogText.normalize(name).strip();
+        if (!normalized.isEmpty()) {
+            keys.add(normalized);
+            for (int i = 1; i < normalized.length(); i++) {
+                if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))) {
+                    keys.add(normalized.substring(i));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static final class Catalog {
+        private final PrefixTrie trie = new PrefixTrie();
+        private final Map<Long, ProductSuggestionDTO> products = new HashMap<>();
+
+        void put(Long id, String sku, String name) {
+            products.put(id, new ProductSuggestionDTO(id, sku, name));
+            for (String key : keys(sku, name)) {
+                trie.insert(key, id);
+            }
+        }
+
+        void remove(Long id) {
+            ProductSuggestionDTO previous = products.remove(id);
+            if (previous != null) {
+                for (String key : keys(previous.getSku(), previous.getName())) {
+                    trie.remove(key, id);
+                }
+            }
+        }
+    }
+}
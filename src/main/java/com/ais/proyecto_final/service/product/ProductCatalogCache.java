@@ -0,0 +1,89 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria de {@link ProductResponseDTO} por id y por SKU, acotada por tamaño y por TTL.
+ * <p>
+ * Las escrituras invalidan la entrada al momento y otra vez tras el commit, para que una lectura
+ * concurrente no vuelva a cachear el valor anterior. El índice por SKU solo guarda el id y se comprueba
+ * al leer, así un cambio de SKU no deja entradas apuntando al producto equivocado. Los DTO devueltos
+ * son compartidos: no deben modificarse.
+ * <p>
+ * Métricas en /actuator/metrics/cache.gets (tags cache=products y cache=products-by-sku).
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final Cache<Long, ProductResponseDTO> byId;
+    private final Cache<String, Long> idsBySku;
+
+    public ProductCatalogCache(MeterRegistry meterRegistry,
+                               @Value("${app.cache.products.max-size:10000}") long maxSize,
+                               @Value("${app.cache.products.ttl-seconds:300}") long ttlSeconds) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.idsBySku = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsBySku, "products-by-sku");
+    }
+
+    public ProductResponseDTO get(Long id, Function<Long, ProductResponseDTO> loader) {
+        return byId.get(id, loader);
+    }
+
+    public ProductResponseDTO getBySku(String sku, Function<String, ProductResponseDTO> loader) {
+        Long id = idsBySku.getIfPresent(sku);
+        if (id != null) {
+            ProductResponseDTO cached = byId.getIfPresent(id);
+            if (cached != null && sku.equals(cached.getSku())) {
+                return cached;
+            }
+            idsBySku.invalidate(sku);
+        }
+        ProductResponseDTO loaded = loader.apply(sku);
+        byId.put(loaded.getId(), loaded);
+        idsBySku.put(sku, loaded.getId());
+        return loaded;
+    }
+
+    public void evict(Long id) {
+        byId.invalidate(id);
+        afterCommit(() -> byId.invalidate(id));
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        byId.invalidateAll(ids);
+        afterCommit(() -> byId.invalidateAll(ids));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.ais.proyecto_final.service.product;
+
+/**
+ * Se publica al crear, modificar o borrar un producto. Los índices en memoria lo escuchan tras el commit.
+ *
+ * @param active false también para productos borrados: en ambos casos dejan de estar en el catálogo
+ */
+public record ProductChangedEvent(Long id, String sku, String name, boolean active) {
+}
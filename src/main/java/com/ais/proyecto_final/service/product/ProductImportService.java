@@ -0,0 +1,23 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.service.importing.ImportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ProductImportService {
+
+    /**
+     * Da de alta o actualiza (por sku) los productos de un CSV o NDJSON. El fichero se lee en streaming y se
+     * escribe en lotes de app.import.products.chunk-size filas, cada uno en su propia transacción, así que la
+     * memoria no depende del tamaño del fichero. Las filas no válidas no detienen la importación: se cuentan
+     * y se devuelven en el informe.
+     * <p>
+     * CSV: cabecera obligatoria con sku, name, price y stock; description y active (true por defecto) son opcionales.
+     * NDJSON: un {@code ProductRequestDTO} por línea.
+     *
+     * @throws IOException si falla la lectura del flujo
+     */
+    ImportResultDTO importProducts(Reader source, ImportFormat format) throws IOException;
+}
@@ -0,0 +1,288 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.dto.product.ProductRequestDTO;
+import com.ais.proyecto_final.entity.Product;
+import com.ais.proyecto_final.mappers.ProductMapper;
+import com.ais.proyecto_final.repository.ProductRepository;
+import com.ais.proyecto_final.service.importing.CsvRowReader;
+import com.ais.proyecto_final.service.importing.ImportFormat;
+import com.ais.proyecto_final.service.importing.ImportReport;
+import com.ais.proyecto_final.service.importing.ImportRow;
+import com.ais.proyecto_final.service.importing.NdjsonRowReader;
+import com.ais.proyecto_final.service.importing.RowReader;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+    private static final List<String> REQUIRED_COLUMNS = List.of("sku", "name", "price", "stock");
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final UniquenessFilters uniquenessFilters;
+    private final ProductCatalogCache productCatalogCache;
+    private final HotStockLedger hotStockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxRecordChars;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    ProductMapper productMapper,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    TransactionTemplate transactionTemplate,
+                                    UniquenessFilters uniquenessFilters,
+                                    ProductCatalogCache productCatalogCache,
+                                    HotStockLedger hotStockLedger,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${app.import.products.chunk-size:500}") int chunkSize,
+                                    @Value("${app.import.max-errors:1000}") int maxErrors,
+                                    @Value("${app.import.max-record-chars:1048576}") int maxRecordChars) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.uniquenessFilters = uniquenessFilters;
+        this.productCatalogCache = productCatalogCache;
+        this.hotStockLedger = hotStockLedger;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    @Override
+    public ImportResultDTO importProducts(Reader source, ImportFormat format) throws IOException {
+        log.info("Iniciando importación de productos en formato {} (lotes de {})", format, chunkSize);
+        ImportReport report = new ImportReport(maxErrors);
+        try (RowReader<ProductRequestDTO> reader = open(source, format)) {
+            List<ImportRow<ProductRequestDTO>> chunk = new ArrayList<>(chunkSize);
+            ImportRow<ProductRequestDTO> row;
+            while ((row = reader.next()) != null) {
+                report.rowRead();
+                if (!row.isValid()) {
+                    report.failed(row.line(), null, row.error());
+                    continue;
+                }
+                String violations = validate(row.value());
+                if (violations != null) {
+                    report.failed(row.line(), row.value().getSku(), violations);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, report);
+            }
+        }
+        ImportResultDTO result = report.toResult();
+        log.info("Importación de productos terminada: {} filas, {} altas, {} actualizados, {} repetidos, {} con error en {} ms",
+                result.getRows(), result.getCreated(), result.getUpdated(), result.getDuplicates(),
+                result.getFailed(), result.getElapsedMs());
+        return result;
+    }
+
+    private RowReader<ProductRequestDTO> open(Reader source, ImportFormat format) throws IOException {
+        if (format == ImportFormat.CSV) {
+            CsvRowReader csv = new CsvRowReader(source, maxRecordChars);
+            csv.requireColumns(REQUIRED_COLUMNS);
+            return new CsvProducts(csv);
+        }
+        return new NdjsonRowReader<>(source, objectMapper, ProductRequestDTO.class, maxRecordChars);
+    }
+
+    private String validate(ProductRequestDTO dto) {
+        var violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void writeChunk(List<ImportRow<ProductRequestDTO>> chunk, ImportReport report) {
+        // un sku repetido dentro del lote: gana la última fila, igual que si se aplicaran una detrás de otra.
+        // Sin distinguir mayúsculas, como el índice único de MySQL
+        Map<String, ImportRow<ProductRequestDTO>> bySku = new LinkedHashMap<>();
+        for (ImportRow<ProductRequestDTO> row : chunk) {
+            if (bySku.put(skuKey(row.value().getSku()), row) != null) {
+                report.duplicate();
+            }
+        }
+
+        try {
+            applied(transactionTemplate.execute(status -> upsert(bySku.values())), report);
+        } catch (RuntimeException e) {
+            // el lote se ha deshecho entero; se repite fila a fila para aislar las que fallan
+            log.warn("Lote de {} productos rechazado ({}); reintentando fila a fila", bySku.size(), e.getMessage());
+            for (ImportRow<ProductRequestDTO> row : bySku.values()) {
+                try {
+                    applied(transactionTemplate.execute(status -> upsert(List.of(row))), report);
+                } catch (RuntimeException rowError) {
+                    report.failed(row.line(), row.value().getSku(), describe(rowError));
+                }
+            }
+        }
+    }
+
+    private Upserted upsert(Collection<ImportRow<ProductRequestDTO>> rows) {
+        // solo se buscan los skus que el filtro de Bloom no descarta; en un catálogo nuevo casi ninguno
+        List<String> candidates = rows.stream()
+                .map(row -> row.value().getSku())
+                .filter(uniquenessFilters::skuMightExist)
+                .toList();
+        Map<String, Product> existing = candidates.isEmpty() ? Map.of()
+                : productRepository.findAllBySkuIn(candidates).stream()
+                .collect(Collectors.toMap(product -> skuKey(product.getSku()), Function.identity(), (first, second) -> first));
+
+        List<Product> created = new ArrayList<>();
+        List<Product> updated = new ArrayList<>();
+        for (ImportRow<ProductRequestDTO> row : rows) {
+            Product product = existing.get(skuKey(row.value().getSku()));
+            if (product == null) {
+                created.add(productMapper.dtoToEntity(row.value()));
+            } else {
+                productMapper.updateEntityFromDto(row.value(), product);
+                updated.add(product);
+            }
+        }
+        productRepository.saveAll(created);
+        // inserts y updates salen aquí en lotes JDBC (hibernate.jdbc.batch_size)
+        productRepository.flush();
+
+        for (Product product : created) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product.getSku(), product.getName(), product.isActive()));
+        }
+        for (Product product : updated) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product.getSku(), product.getName(), product.isActive()));
+        }
+        return new Upserted(created.stream().map(Product::getSku).toList(),
+                updated.stream().map(Product::getId).toList());
+    }
+
+    // efectos fuera de la base de datos: solo tras el commit del lote
+    private void applied(Upserted upserted, ImportReport report) {
+        upserted.createdSkus().forEach(uniquenessFilters::skuAdded);
+        productCatalogCache.evictAll(upserted.updatedIds());
+        upserted.updatedIds().stream().filter(hotStockLedger::isHot).forEach(hotStockLedger::reseed);
+        report.created(upserted.createdSkus().size());
+        report.updated(upserted.updatedIds().size());
+    }
+
+    private static String skuKey(String sku) {
+        return sku.toLowerCase(Locale.ROOT);
+    }
+
+    private static String describe(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return "Rechazado por la base de datos: el sku ya existe o algún dato no cumple las restricciones";
+        }
+        return "Error al guardar: " + e.getClass().getSimpleName();
+    }
+
+    private record Upserted(List<String> createdSkus, List<Long> updatedIds) {
+    }
+
+    // adapta las filas del CSV (columna → texto) a ProductRequestDTO; un número mal escrito invalida solo esa fila
+    private static final class CsvProducts implements RowReader<ProductRequestDTO> {
+        private final CsvRowReader csv;
+
+        private CsvProducts(CsvRowReader csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public ImportRow<ProductRequestDTO> next() throws IOException {
+            ImportRow<Map<String, String>> row = csv.next();
+            if (row == null || !row.isValid()) {
+                return row == null ? null : ImportRow.failed(row.line(), row.error());
+            }
+            Map<String, String> fields = row.value();
+            try {
+                return ImportRow.ok(row.line(), ProductRequestDTO.builder()
+                        .sku(text(fields.get("sku")))
+                        .name(text(fields.get("name")))
+                        .description(text(fields.get("description")))
+                        .price(decimal("price", fields.get("price")))
+                        .stock(integer("stock", fields.get("stock")))
+                        .active(bool("active", fields.getOrDefault("active", "true")))
+                        .build());
+            } catch (IllegalArgumentException e) {
+                return ImportRow.failed(row.line(), e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+
+        private static String text(String value) {
+            return value == null || value.isBlank() ? null : value.strip();
+        }
+
+        private static BigDecimal decimal(String column, String value) {
+            String text = text(value);
+            try {
+                return text == null ? null : new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": '" + text + "' no es un número");
+            }
+        }
+
+        private static Integer integer(String column, String value) {
+            String text = text(value);
+            try {
+                return text == null ? null : Integer.valueOf(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": '" + text + "' no es un número entero");
+            }
+        }
+
+        private static Boolean bool(String column, String value) {
+            String text = text(value);
+            if (text == null) {
+                return null;
+            }
+            return switch (text.toLowerCase(Locale.ROOT)) {
+                case "true", "1" -> true;
+                case "false", "0" -> false;
+                default -> throw new IllegalArgumentException(column + ": '" + text + "' debe ser true o false");
+            };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lleva a los índices en memoria del catálogo los cambios hechos desde otras instancias, que no llegan como
+ * {@link ProductChangedEvent} local.
+ * <p>
+ * Cada app.products.index.refresh-ms lee los productos con {@code updatedAt} posterior a la consulta anterior
+ * menos app.products.index.refresh-lag-ms; el margen cubre transacciones que confirman tarde y relojes algo
+ * desfasados, y repetir un cambio no tiene efecto. Cada app.products.index.rebuild-interval-ms se reconstruye
+ * todo. Un índice cuya construcción falló (p. ej. al arrancar sin base de datos) se reintenta en los refrescos
+ * con una espera que se duplica en cada fallo, hasta MAX_RETRY_DELAY.
+ */
+@Component
+public class ProductIndexRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIndexRefresher.class);
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
+    private final ProductRepository productRepository;
+    private final ProductNameIndex productNameIndex;
+    private final ProductAutocomplete productAutocomplete;
+    private final Duration lag;
+    private LocalDateTime lastRefresh = LocalDateTime.now();
+    private Duration retryDelay = FIRST_RETRY_DELAY;
+    private LocalDateTime nextRetry = LocalDateTime.now();
+
+    public ProductIndexRefresher(ProductRepository productRepository,
+                                 ProductNameIndex productNameIndex,
+                                 ProductAutocomplete productAutocomplete,
+                                 @Value("${app.products.index.refresh-lag-ms:30000}") long lagMs) {
+        this.productRepository = productRepository;
+        this.productNameIndex = productNameIndex;
+        this.productAutocomplete = productAutocomplete;
+        this.lag = Duration.ofMillis(lagMs);
+    }
+
+    @Scheduled(fixedDelayString = "${app.products.index.refresh-ms:5000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        retryFailedBuilds(now);
+        List<ProductRepository.ProductLabelChange> changes;
+        try {
+            changes = productRepository.findLabelsUpdatedSince(lastRefresh.minus(lag));
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron leer los cambios de productos para los índices en memoria: {}", e.getMessage());
+            return;
+        }
+        lastRefresh = now;
+        for (ProductRepository.ProductLabelChange change : changes) {
+            ProductChangedEvent event = new ProductChangedEvent(change.getId(), change.getSku(), change.getName(), change.isActive());
+            productNameIndex.onProductChanged(event);
+            productAutocomplete.onProductChanged(event);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.products.index.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.products.index.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        productNameIndex.rebuild();
+        productAutocomplete.rebuild();
+    }
+
+    private void retryFailedBuilds(LocalDateTime now) {
+        boolean nameIndexReady = productNameIndex.isReady();
+        boolean autocompleteReady = productAutocomplete.isReady();
+        if (nameIndexReady && autocompleteReady) {
+            retryDelay = FIRST_RETRY_DELAY;
+            return;
+        }
+        if (now.isBefore(nextRetry)) {
+            return;
+        }
+        log.info("Reintentando la construcción de los índices del catálogo pendientes");
+        if (!nameIndexReady) {
+            productNameIndex.rebuild();
+        }
+        if (!autocompleteReady) {
+            productAutocomplete.rebuild();
+        }
+        if (!productNameIndex.isReady() || !productAutocomplete.isReady()) {
+            nextRetry = now.plus(retryDelay);
+            Duration doubled = retryDelay.multipliedBy(2);
+            retryDelay = doubled.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : doubled;
+        }
+    }
+}
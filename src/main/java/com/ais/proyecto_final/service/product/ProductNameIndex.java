@@ -0,0 +1,232 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas sobre los nombres de los productos activos, para resolver en memoria el
+ * filtro "nombre contiene" que en SQL es un {@code LIKE '%term%'} sin índice posible.
+ * <p>
+ * Nombres y términos se normalizan con {@link CatalogText} (minúsculas y sin acentos, como la collation de
+ * MySQL). Un término de 3 o más caracteres se resuelve intersecando las listas de sus trigramas y confirmando
+ * cada candidato con {@code contains}; los más cortos recorren los nombres en memoria. El resultado es el
+ * mismo conjunto de ids que daría el LIKE, y la base de datos solo se consulta por esos ids.
+ * <p>
+ * Se construye al arrancar recorriendo la tabla en streaming y se mantiene con los
+ * {@link ProductChangedEvent} confirmados en esta instancia y con los cambios de las demás que lee
+ * {@link ProductIndexRefresher}. Mientras no está listo, {@link #search} devuelve vacío y el servicio usa
+ * la consulta SQL.
+ */
+@Component
+public class ProductNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductNameIndex.class);
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxMatches;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private boolean ready;
+    // eventos que llegan mientras se reconstruye: se aplican sobre el índice nuevo antes de publicarlo
+    private List<ProductChangedEvent> pendingDuringRebuild;
+
+    public ProductNameIndex(ProductRepository productRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.products.name-index.max-matches:1000}") int maxMatches) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxMatches = maxMatches;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var names = productRepository.streamActiveLabels()) {
+                    names.forEach(row -> rebuilt.put(row.getId(), row.getName()));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el índice de nombres de producto; se usará la consulta SQL: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(event -> apply(rebuilt, event));
+            pendingDuringRebuild = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de nombres de producto construido: {} productos en {} ms",
+                rebuilt.names.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // fallbackExecution: también se aplica si el cambio se publicó fuera de una transacción
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(index, event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de los productos activos cuyo nombre contiene {@code term} (sin distinguir mayúsculas ni acentos).
+     *
+     * @return vacío si el índice aún no está listo o hay más de app.products.name-index.max-matches
+     *         coincidencias; en ambos casos conviene resolver la búsqueda en la base de datos
+     */
+    public Optional<Set<Long>> search(String term) {
+        String needle = CatalogText.normalize(term);
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            Set<Long> matches = needle.length() < GRAM ? index.scan(needle) : index.lookup(needle);
+            return matches.size() > maxMatches ? Optional.empty() : Optional.of(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(Index target, ProductChangedEvent event) {
+        // el refresco periódico repite cambios ya aplicados: si el nombre no cambia no hay nada que tocar
+        if (event.active() && CatalogText.normalize(event.name()).equals(target.names.get(event.id()))) {
+            return;
+        }
+        target.remove(event.id());
+        if (event.active()) {
+            target.put(event.id(), event.name());
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class Index {
+        private final Map<Long, String> names = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        void put(Long id, String name) {
+            String normalized = CatalogText.normalize(name);
+            names.put(id, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        }
+
+        void remove(Long id) {
+            String previous = names.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : grams(previous)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        Set<Long> lookup(String needle) {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(needle)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>();
+            // se parte de la lista más corta; los trigramas no garantizan el orden, así que se confirma con contains
+            for (Long id : lists.get(0)) {
+                if (names.get(id).contains(needle)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        Set<Long> scan(String needle) {
+            Set<Long> result = new HashSet<>();
+            names.forEach((id, name) -> {
+                if (name.contains(needle)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+    }
+}
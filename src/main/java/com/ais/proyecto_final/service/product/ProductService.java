@@ -2,20 +2,32 @@ package com.ais.proyecto_final.service.product;
 
 import com.ais.proyecto_final.dto.product.ProductRequestDTO;
 import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.ais.proyecto_final.dto.product.ProductSuggestionDTO;
 import com.ais.proyecto_final.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
 
     ProductResponseDTO createProduct(ProductRequestDTO productDto);
 
-    Page<ProductResponseDTO> findAllProducts(String name, Boolean active, Pageable pageable);
+    Page<ProductResponseDTO> findAllProducts(String name, Boolean active, boolean includeDescription, Pageable pageable);
+
+    /**
+     * Sugerencias para la caja de búsqueda, resueltas en memoria sin consultar la base de datos.
+     *
+     * @param limit número máximo de sugerencias, entre 1 y 50
+     */
+    List<ProductSuggestionDTO> autocomplete(String prefix, int limit);
 
     ProductResponseDTO getProductById(Long id);
 
+    ProductResponseDTO getProductBySku(String sku);
+
     ProductResponseDTO updateProduct(Long id, ProductRequestDTO dto);
 
     void deleteProductById(Long id);
@@ -26,6 +38,29 @@ public interface ProductService {
 
     void reduceStock(Long productId, Integer quantity);
 
+    /**
+     * Reserva el stock de varias líneas de un pedido de una sola vez.
+     * Carga todos los productos con una única consulta, valida stock y estado en memoria
+     * y aplica los descuentos en un único lote. Si alguna línea falla no se descuenta nada.
+     *
+     * @param quantitiesByProduct cantidad total solicitada por ID de producto
+     * @return los productos reservados indexados por su ID
+     */
+    Map<Long, Product> reserveStock(Map<Long, Integer> quantitiesByProduct);
+
     void returnStock(Long productId, Integer quantity);
 
+    /**
+     * Devuelve al inventario el stock de varios productos en un único lote.
+     *
+     * @param quantitiesByProduct cantidad total a devolver por ID de producto
+     */
+    void returnStockBatch(Map<Long, Integer> quantitiesByProduct);
+
+    /**
+     * Indica si el descuento de stock del producto se aplica en diferido (modo producto caliente).
+     * Las líneas de pedido de esos productos se guardan marcadas como pendientes de volcar.
+     */
+    boolean isStockDeferred(Long productId);
+
 }
\ No newline at end of file
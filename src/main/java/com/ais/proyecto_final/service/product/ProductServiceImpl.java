@@ -3,61 +3,108 @@ package com.ais.proyecto_final.service.product;
 
 import com.ais.proyecto_final.dto.product.ProductRequestDTO;
 import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.ais.proyecto_final.dto.product.ProductSuggestionDTO;
 import com.ais.proyecto_final.entity.Product;
 import com.ais.proyecto_final.exceptions.DuplicateResourceException;
 import com.ais.proyecto_final.exceptions.OrderBusinessException;
 import com.ais.proyecto_final.mappers.ProductMapper;
 import com.ais.proyecto_final.repository.ProductRepository;
 import com.ais.proyecto_final.repository.ProductSpecification;
+import com.ais.proyecto_final.service.uniqueness.UniqueIndexViolations;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @AllArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
+    private static final int AUTOCOMPLETE_MAX_LIMIT = 50;
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final HotStockLedger hotStockLedger;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductNameIndex productNameIndex;
+    private final ProductAutocomplete productAutocomplete;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UniquenessFilters uniquenessFilters;
 
     @Transactional
     public ProductResponseDTO createProduct(ProductRequestDTO productDto) {
         log.info("Creando producto con sku: {}", productDto.getSku());
-        if (productRepository.existsBySku(productDto.getSku())) {
+        // el filtro de Bloom descarta casi siempre la consulta; el índice único tiene la última palabra en saveUnique
+        if (uniquenessFilters.skuMightExist(productDto.getSku()) && productRepository.existsBySku(productDto.getSku())) {
             log.warn("Product creation failed: SKU {} already exists.", productDto.getSku());
             throw new DuplicateResourceException("El sku " + productDto.getSku() + " ya existe.");
         }
 
         Product product = productMapper.dtoToEntity(productDto);
-        Product saved = productRepository.save(product);
+        Product saved = saveUnique(product);
+        uniquenessFilters.skuAdded(saved.getSku());
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved.getSku(), saved.getName(), saved.isActive()));
         log.info("Producto creado con id: {} y sku: {}", saved.getId(), saved.getSku());
         return productMapper.toResponseDto(saved);
     }
 
 
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> findAllProducts(String name, Boolean active, Pageable pageable) {
+    public Page<ProductResponseDTO> findAllProducts(String name, Boolean active, boolean includeDescription, Pageable pageable) {
         log.info("Buscando productos con filtro nombre: {}, estado activo: {}, página: {}", name, active, pageable.getPageNumber());
         Specification<Product> spec = ProductSpecification.nameContains(name)
                 .and(ProductSpecification.isActive(active));
 
-        Page<Product> productsPage = productRepository.findAll(spec, pageable);
+        // el índice solo cubre productos activos; el resto de filtros sigue yendo al LIKE
+        if (Boolean.TRUE.equals(active) && StringUtils.hasText(name)) {
+            Optional<Set<Long>> matches = productNameIndex.search(name);
+            if (matches.isPresent()) {
+                if (matches.get().isEmpty()) {
+                    return Page.empty(pageable);
+                }
+                spec = ProductSpecification.idIn(matches.get()).and(ProductSpecification.isActive(true));
+            }
+        }
+
+        Page<ProductResponseDTO> productsPage = productRepository.findSummaries(spec, pageable, includeDescription);
         log.info("Found {} products on page {}", productsPage.getNumberOfElements(), pageable.getPageNumber());
-        return productsPage.map(productMapper::toResponseDto);
+        return productsPage;
     }
 
-    @Transactional(readOnly = true)
+    // sin @Transactional ni log por petición: se llama en cada pulsación de tecla
+    @Override
+    public List<ProductSuggestionDTO> autocomplete(String prefix, int limit) {
+        return productAutocomplete.suggest(prefix, Math.min(Math.max(limit, 1), AUTOCOMPLETE_MAX_LIMIT));
+    }
+
+    // sin @Transactional: un acierto en caché no debe ocupar una conexión del pool
     public ProductResponseDTO getProductById(Long id) {
         log.info("Buscando producto con id: {}", id);
+        return productCatalogCache.get(id, this::loadProduct);
+    }
+
+    @Override
+    public ProductResponseDTO getProductBySku(String sku) {
+        log.info("Buscando producto con sku: {}", sku);
+        return productCatalogCache.getBySku(sku, this::loadProductBySku);
+    }
+
+    private ProductResponseDTO loadProduct(Long id) {
         return productRepository.findById(id)
                 .map(product -> {
                     log.info("Producto encontrado con el id: {}", id);
@@ -69,6 +116,18 @@ public class ProductServiceImpl implements ProductService {
                 });
     }
 
+    private ProductResponseDTO loadProductBySku(String sku) {
+        return productRepository.findBySku(sku)
+                .map(product -> {
+                    log.info("Producto encontrado con el sku: {}", sku);
+                    return productMapper.toResponseDto(product);
+                })
+                .orElseThrow(() -> {
+                    log.warn("Producto no encontrado para el sku: {}.", sku);
+                    return new EntityNotFoundException("Producto con sku " + sku + " no existe");
+                });
+    }
+
     @Transactional
     public void deleteProductById(Long id) {
         log.info("Dando de baja producto con id: {}", id);
@@ -79,6 +138,8 @@ public class ProductServiceImpl implements ProductService {
                 });
         existing.setActive(false);
         productRepository.save(existing);
+        productCatalogCache.evict(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, existing.getSku(), existing.getName(), false));
         log.info("Producto con id: {} ha sido dado de baja.", id);
     }
 
@@ -91,6 +152,8 @@ public class ProductServiceImpl implements ProductService {
                     return new EntityNotFoundException("Producto " + id + " no existe");
                 });
         productRepository.delete(existing);
+        productCatalogCache.evict(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, existing.getSku(), existing.getName(), false));
         log.info("Producto con id: {} ha sido eliminado de la BD.", id);
     }
 
@@ -105,17 +168,39 @@ public class ProductServiceImpl implements ProductService {
                 });
 
         if (!existing.getSku().equals(dto.getSku()) &&
+                uniquenessFilters.skuMightExist(dto.getSku()) &&
                 productRepository.existsBySku(dto.getSku())) {
             log.warn("Fallo en el update para ID: {}. Nuevo SKU: {} ya existe.", id, dto.getSku());
             throw new DuplicateResourceException("SKU ya existe para otro producto");
         }
 
         productMapper.updateEntityFromDto(dto, existing);
-        Product updated = productRepository.save(existing);
+        Product updated = saveUnique(existing);
+        uniquenessFilters.skuAdded(updated.getSku());
+        productCatalogCache.evict(id);
+        if (hotStockLedger.isHot(id)) {
+            hotStockLedger.reseed(id);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(updated.getId(), updated.getSku(), updated.getName(), updated.isActive()));
         log.info("Actualizado producto con id: {} .", updated.getId());
         return productMapper.toResponseDto(updated);
     }
 
+    private Product saveUnique(Product product) {
+        try {
+            Product saved = productRepository.save(product);
+            // el flush adelanta la sentencia para traducir aquí, y no en el commit, la violación del índice único
+            productRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueIndexViolations.isViolationOf(e, "idx_product_sku")) {
+                throw e;
+            }
+            log.warn("El índice único rechazó el sku {}: ya existe.", product.getSku());
+            throw new DuplicateResourceException("El sku " + product.getSku() + " ya existe.");
+        }
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Optional<Product> getProductEntityById(Long id) {
@@ -126,27 +211,122 @@ public class ProductServiceImpl implements ProductService {
     @Transactional
     @Override
     public void reduceStock(Long productId, Integer quantity) {
+        if (hotStockLedger.isHot(productId)) {
+            reserveHotStock(productRepository.findById(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Producto " + productId + " no existe.")), quantity);
+            return;
+        }
+        if (productRepository.decrementStockIfAvailable(productId, quantity) == 1) {
+            productCatalogCache.evict(productId);
+            return;
+        }
+
+        // solo en el camino de error se lee el producto, para devolver el motivo concreto
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Producto " + productId + " no existe."));
+        checkStockAvailable(product, quantity);
+        throw insufficientStock(product, quantity);
+    }
 
+    @Transactional
+    @Override
+    public Map<Long, Product> reserveStock(Map<Long, Integer> quantitiesByProduct) {
+        log.info("Reservando stock para {} productos", quantitiesByProduct.size());
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(quantitiesByProduct.keySet())) {
+            products.put(product.getId(), product);
+        }
+
+        // validación previa en memoria para fallar rápido sin escribir nada
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                log.warn("Reserva de stock fallida. No se encontró el producto con ID: {}", productId);
+                throw new EntityNotFoundException("Producto " + productId + " no encontrado.");
+            }
+            checkStockAvailable(product, quantity);
+        });
+
+        Map<Long, Integer> regularQuantities = new HashMap<>();
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            if (hotStockLedger.isHot(productId)) {
+                reserveHotStock(products.get(productId), quantity);
+            } else {
+                regularQuantities.put(productId, quantity);
+            }
+        });
+
+        // la decisión final la toma la base de datos con UPDATE condicionales en un único lote;
+        // si alguno se rechaza la excepción deshace también los que sí se aplicaron
+        if (!regularQuantities.isEmpty()) {
+            Set<Long> rejected = productRepository.decrementStockBatch(regularQuantities);
+            if (!rejected.isEmpty()) {
+                log.warn("Reserva de stock rechazada por concurrencia para los productos: {}", rejected);
+                Long productId = rejected.iterator().next();
+                throw insufficientStock(products.get(productId), quantitiesByProduct.get(productId));
+            }
+        }
+        productCatalogCache.evictAll(regularQuantities.keySet());
+        log.info("Stock reservado para los productos: {}", products.keySet());
+        return products;
+    }
+
+    @Override
+    public boolean isStockDeferred(Long productId) {
+        return hotStockLedger.isHot(productId);
+    }
+
+    private void reserveHotStock(Product product, Integer quantity) {
+        checkStockAvailable(product, quantity);
+        if (!hotStockLedger.reserve(product.getId(), quantity)) {
+            log.warn("Sin stock en el contador del producto caliente {}. Solicitado: {}", product.getId(), quantity);
+            throw insufficientStock(product, quantity);
+        }
+    }
+
+    private OrderBusinessException insufficientStock(Product product, Integer quantity) {
+        return new OrderBusinessException("Stock insuficiente para '" + product.getName() + "'. Solicitado: " + quantity);
+    }
+
+    private void checkStockAvailable(Product product, Integer quantity) {
         if (!product.isActive()) {
             throw new OrderBusinessException("El producto '" + product.getName() + "' (ID: " + product.getId() + ") no está activo.");
         }
         if (product.getStock() < quantity) {
             throw new OrderBusinessException("Stock insuficiente para '" + product.getName() + "'. Stock actual: " + product.getStock() + ", Solicitado: " + quantity);
         }
-
-        product.setStock(product.getStock() - quantity);
-        productRepository.save(product);
     }
 
     @Transactional
     @Override
     public void returnStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Producto " + productId + " no existe al intentar devolver stock."));
+        // suma atómica: no puede pisar el volcado periódico de los productos calientes
+        if (productRepository.addStock(productId, quantity) == 0) {
+            throw new EntityNotFoundException("Producto " + productId + " no existe al intentar devolver stock.");
+        }
+        productCatalogCache.evict(productId);
+        if (hotStockLedger.isHot(productId)) {
+            hotStockLedger.release(productId, quantity);
+        }
+    }
 
-        product.setStock(product.getStock() + quantity);
-        productRepository.save(product);
+    @Transactional
+    @Override
+    public void returnStockBatch(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        log.info("Devolviendo stock de {} productos en lote", quantitiesByProduct.size());
+        Set<Long> missing = productRepository.incrementStockBatch(quantitiesByProduct);
+        if (!missing.isEmpty()) {
+            log.warn("No se pudo devolver stock. Productos inexistentes: {}", missing);
+            throw new EntityNotFoundException("Productos " + missing + " no existen al intentar devolver stock.");
+        }
+        productCatalogCache.evictAll(quantitiesByProduct.keySet());
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            if (hotStockLedger.isHot(productId)) {
+                hotStockLedger.release(productId, quantity);
+            }
+        });
     }
 }
\ No newline at end of file
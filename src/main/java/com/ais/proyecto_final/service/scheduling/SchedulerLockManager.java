@@ -0,0 +1,84 @@
+package com.ais.proyecto_final.service.scheduling;
+
+import com.ais.proyecto_final.repository.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Elección de líder por tarea programada con la tabla scheduler_locks, para que una tarea que corre en
+ * todos los nodos solo se ejecute en uno a la vez.
+ * <p>
+ * El bloqueo es un "lease": vence en {@code lockedUntil} aunque el nodo que lo tiene muera sin liberarlo,
+ * así que debe pedirse por más tiempo del que puede durar la ejecución.
+ */
+@Component
+public class SchedulerLockManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulerLockManager.class);
+
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    public SchedulerLockManager(SchedulerLockRepository schedulerLockRepository, TransactionTemplate transactionTemplate) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Intenta quedarse con el bloqueo {@code name} durante {@code lockFor}.
+     *
+     * @return true si este nodo tiene el bloqueo y debe ejecutar la tarea
+     */
+    public boolean tryLock(String name, Duration lockFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lockFor);
+        try {
+            Boolean acquired = transactionTemplate.execute(status -> {
+                if (schedulerLockRepository.acquireIfExpired(name, owner, now, until) == 1) {
+                    return true;
+                }
+                if (schedulerLockRepository.existsById(name)) {
+                    return false;
+                }
+                return schedulerLockRepository.insertLock(name, owner, now, until) == 1;
+            });
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataIntegrityViolationException e) {
+            // otro nodo creó la fila a la vez: ese nodo tiene el bloqueo
+            return false;
+        }
+    }
+
+    public void unlock(String name) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    schedulerLockRepository.release(name, owner, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // sin liberar, el bloqueo vence solo en lockedUntil
+            log.warn("No se pudo liberar el bloqueo {}: {}", name, e.getMessage());
+        }
+    }
+
+    String owner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.ais.proyecto_final.service.uniqueness;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas. {@link #mightContain} nunca da un falso negativo; un positivo puede ser falso
+ * con la probabilidad que devuelve {@link #expectedFalsePositiveRate}.
+ * <p>
+ * Las altas son lock-free (un CAS por bit), así que se puede consultar y añadir desde varios hilos a la vez.
+ * No admite bajas: las claves borradas se quedan hasta que {@link UniqueKeyFilter} reconstruye el filtro.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Dimensiona el filtro con las fórmulas habituales: m = -n·ln(p) / ln(2)² bits y k = m/n · ln(2) funciones hash.
+     */
+    static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Probabilidad de falso positivo estimada con las claves añadidas hasta ahora: (1 - e^(-k·n/m))^k. */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions.get() / bitCount), hashCount);
+    }
+
+    long sizeInBytes() {
+        return words.length() * 8L;
+    }
+
+    long insertions() {
+        return insertions.get();
+    }
+
+    private long index(int combined) {
+        // doble hashing (Kirsch-Mitzenmacher): k posiciones a partir de dos hashes de 32 bits
+        return Math.floorMod((long) combined, bitCount);
+    }
+
+    // FNV-1a de 64 bits sobre UTF-8 con el mezclado final de MurmurHash3 para repartir los bits altos
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ais.proyecto_final.service.uniqueness;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Distingue, dentro de un {@link DataIntegrityViolationException}, la violación del índice único de una
+ * clave de cualquier otra restricción (NOT NULL, longitud, claves ajenas...). Solo la primera es un
+ * duplicado; el resto son errores de datos que no deben llegar al cliente como 409.
+ * <p>
+ * Se busca el nombre de la restricción que extrae Hibernate y, si el dialecto no lo extrae, el mensaje
+ * del driver. Vale tanto el índice con nombre ({@code idx_product_sku}) como el {@code UK...} que genera
+ * Hibernate para {@code @Column(unique = true)}.
+ */
+public final class UniqueIndexViolations {
+
+    private UniqueIndexViolations() {
+    }
+
+    public static boolean isViolationOf(DataIntegrityViolationException e, String indexName) {
+        String text = constraintName(e);
+        if (text == null) {
+            text = e.getMostSpecificCause().getMessage();
+        }
+        if (text == null) {
+            return false;
+        }
+        String index = indexName.toLowerCase(Locale.ROOT);
+        // los drivers adornan el nombre con esquema, tabla o columnas ("PUBLIC.IDX_PRODUCT_SKU_INDEX_8 ON ...")
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^a-z0-9_]+")) {
+            if (token.startsWith(index) || token.startsWith("uk")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String constraintName(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ais.proyecto_final.service.uniqueness;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Filtro de Bloom de una clave única (sku, email) con su ciclo de vida: vacío y "todo puede existir" hasta
+ * la primera carga, altas incrementales y reconstrucciones periódicas que descartan las claves borradas o
+ * cambiadas y redimensionan el filtro al tamaño actual de la tabla.
+ * <p>
+ * Las claves se comparan en minúsculas: así el filtro nunca dice "no existe" a algo que una columna con
+ * collation sin distinción de mayúsculas consideraría duplicado.
+ */
+class UniqueKeyFilter {
+
+    private final String key;
+    private final long minExpectedKeys;
+    private final double falsePositiveRate;
+    private final Counter skipped;
+
+    private volatile BloomFilter filter;
+    private List<String> pendingDuringRebuild;
+
+    UniqueKeyFilter(String key, long minExpectedKeys, double falsePositiveRate, MeterRegistry meterRegistry) {
+        this.key = key;
+        this.minExpectedKeys = minExpectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.skipped = Counter.builder("uniqueness.filter.skipped")
+                .description("Comprobaciones de unicidad resueltas sin consultar la base de datos")
+                .tag("key", key).register(meterRegistry);
+        Gauge.builder("uniqueness.filter.memory", this, f -> f.filter == null ? 0 : f.filter.sizeInBytes())
+                .baseUnit("bytes").tag("key", key).register(meterRegistry);
+        Gauge.builder("uniqueness.filter.false.positive.rate", this, f -> f.filter == null ? 1 : f.filter.expectedFalsePositiveRate())
+                .tag("key", key).register(meterRegistry);
+        Gauge.builder("uniqueness.filter.keys", this, f -> f.filter == null ? 0 : f.filter.insertions())
+                .tag("key", key).register(meterRegistry);
+    }
+
+    /**
+     * @return false solo si la clave seguro que no está en la tabla; true si puede estar o el filtro aún no se ha cargado
+     */
+    boolean mightExist(String value) {
+        BloomFilter current = filter;
+        if (current == null || value == null) {
+            return true;
+        }
+        if (current.mightContain(normalize(value))) {
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    /** Registra una clave nueva. Si luego la transacción se deshace solo queda un falso positivo. */
+    void add(String value) {
+        if (value == null) {
+            return;
+        }
+        String normalized = normalize(value);
+        // bajo el mismo lock que el cambio de filtro en rebuild: ninguna alta se queda solo en el filtro viejo
+        synchronized (this) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(normalized);
+            }
+            if (filter != null) {
+                filter.put(normalized);
+            }
+        }
+    }
+
+    /**
+     * Carga un filtro nuevo y lo publica cuando está completo; mientras tanto se sigue usando el anterior.
+     *
+     * @param currentCount número de claves en la tabla, para dimensionar el filtro con holgura
+     * @param loader       recorre la tabla y entrega cada clave al consumidor
+     */
+    void rebuild(long currentCount, Consumer<Consumer<String>> loader) {
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        BloomFilter rebuilt = BloomFilter.create(Math.max(minExpectedKeys, currentCount * 2), falsePositiveRate);
+        boolean loaded = false;
+        try {
+            loader.accept(value -> rebuilt.put(normalize(value)));
+            loaded = true;
+        } finally {
+            synchronized (this) {
+                if (loaded) {
+                    pendingDuringRebuild.forEach(rebuilt::put);
+                    filter = rebuilt;
+                }
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    String key() {
+        return key;
+    }
+
+    long sizeInBytes() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.sizeInBytes();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
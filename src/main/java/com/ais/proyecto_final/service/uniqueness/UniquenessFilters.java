@@ -0,0 +1,94 @@
+package com.ais.proyecto_final.service.uniqueness;
+
+import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Filtros de Bloom de los skus de producto y los emails de cliente. Permiten saltarse el
+ * {@code existsBySku}/{@code existsByEmail} previo al alta cuando la clave seguro que no existe, que es
+ * casi siempre en las importaciones masivas.
+ * <p>
+ * El filtro solo evita consultas: quien decide es el índice único de la tabla. Si otro nodo ha dado de
+ * alta la misma clave, el INSERT falla y el servicio lo traduce a {@code DuplicateResourceException}.
+ * Las claves borradas o cambiadas se quedan en el filtro (solo cuestan falsos positivos) hasta la
+ * siguiente reconstrucción periódica.
+ */
+@Component
+public class UniquenessFilters {
+
+    private static final Logger log = LoggerFactory.getLogger(UniquenessFilters.class);
+
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UniqueKeyFilter skus;
+    private final UniqueKeyFilter emails;
+
+    public UniquenessFilters(ProductRepository productRepository,
+                             CustomerRepository customerRepository,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.uniqueness.min-expected-keys:100000}") long minExpectedKeys,
+                             @Value("${app.uniqueness.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.skus = new UniqueKeyFilter("sku", minExpectedKeys, falsePositiveRate, meterRegistry);
+        this.emails = new UniqueKeyFilter("email", minExpectedKeys, falsePositiveRate, meterRegistry);
+    }
+
+    /** false solo si el sku seguro que no existe y se puede omitir el {@code existsBySku}. */
+    public boolean skuMightExist(String sku) {
+        return skus.mightExist(sku);
+    }
+
+    public void skuAdded(String sku) {
+        skus.add(sku);
+    }
+
+    /** false solo si el email seguro que no existe y se puede omitir el {@code existsByEmail}. */
+    public boolean emailMightExist(String email) {
+        return emails.mightExist(email);
+    }
+
+    public void emailAdded(String email) {
+        emails.add(email);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.uniqueness.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${app.uniqueness.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        rebuild(skus, productRepository::count, productRepository::streamAllSkus);
+        rebuild(emails, customerRepository::count, customerRepository::streamAllEmails);
+    }
+
+    private void rebuild(UniqueKeyFilter filter, Supplier<Long> count, Supplier<Stream<String>> keys) {
+        long start = System.nanoTime();
+        try {
+            long total = count.get();
+            filter.rebuild(total, sink -> transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> stream = keys.get()) {
+                    stream.forEach(sink);
+                }
+            }));
+            log.info("Filtro de unicidad '{}' reconstruido: {} claves, {} KB en {} ms", filter.key(), total,
+                    filter.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // se sigue con el filtro anterior (o sin filtro): solo se pierde el atajo
+            log.warn("No se pudo reconstruir el filtro de unicidad '{}': {}", filter.key(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ais.proyecto_final.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(target.getConnection()).thenReturn(connection);
+        dataSource = new ConcurrencyLimitedDataSource(target, 2, 50);
+    }
+
+    @Test
+    void getConnection_ShouldTimeOut_WhenAllPermitsAreBorrowed() throws SQLException {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_ShouldReleasePermitOnlyOnce() throws SQLException {
+        Connection first = dataSource.getConnection();
+
+        first.close();
+        first.close();
+
+        assertEquals(2, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_ShouldReleasePermit_WhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("sin conexión"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    void proxy_ShouldDelegateOtherCalls() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(false);
+
+        Connection limited = dataSource.getConnection();
+
+        assertFalse(limited.getAutoCommit());
+    }
+
+    @Test
+    void proxy_ShouldCompareByIdentity() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+        assertEquals(System.identityHashCode(first), first.hashCode());
+        verifyNoInteractions(connection);
+    }
+
+    @Test
+    void unwrap_ShouldReturnProxy_WhenAskedForConnection() throws SQLException {
+        Connection limited = dataSource.getConnection();
+
+        assertSame(limited, limited.unwrap(Connection.class));
+        assertTrue(limited.isWrapperFor(Connection.class));
+        verify(connection, never()).unwrap(any());
+    }
+
+    @Test
+    void unwrap_ShouldDelegate_ForDriverSpecificInterfaces() throws SQLException {
+        when(connection.isWrapperFor(Runnable.class)).thenReturn(false);
+
+        Connection limited = dataSource.getConnection();
+
+        assertFalse(limited.isWrapperFor(Runnable.class));
+        verify(connection).isWrapperFor(Runnable.class);
+    }
+}
@@ -1,7 +1,12 @@
 package com.ais.proyecto_final.controller;
 
 import com.ais.proyecto_final.dto.auth.LoginRequestDTO;
+import com.ais.proyecto_final.dto.auth.RevokeTokenRequestDTO;
+import com.ais.proyecto_final.exceptions.TooManyRequestsException;
 import com.ais.proyecto_final.security.JwtTokenProvider;
+import com.ais.proyecto_final.security.LoginThrottle;
+import com.ais.proyecto_final.security.TokenRevocationList;
+import io.jsonwebtoken.Jwts;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,14 +17,25 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -38,6 +54,12 @@ class AuthControllerTest {
     @MockBean
     private JwtTokenProvider tokenProvider;
 
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+
+    @MockBean
+    private LoginThrottle loginThrottle;
+
     @Test
     void authenticateUser_ShouldReturnToken_WhenCredentialsAreValid() throws Exception {
         LoginRequestDTO loginRequest = new LoginRequestDTO("admin", "password");
@@ -47,10 +69,14 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(tokenProvider.generateToken(authentication)).thenReturn(testToken);
 
-        mockMvc.perform(post("/api/auth/login")
+        MvcResult pending = mockMvc.perform(post("/api/auth/login")
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value(testToken))
                 .andExpect(jsonPath("$.tokenType").value("Bearer"));
@@ -63,10 +89,73 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any()))
                 .thenThrow(new BadCredentialsException("Invalid credentials"));
 
+        MvcResult pending = mockMvc.perform(post("/api/auth/login")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void authenticateUser_ShouldReturn429_WhenThrottled() throws Exception {
+        LoginRequestDTO loginRequest = new LoginRequestDTO("admin", "password");
+        doThrow(new TooManyRequestsException("Demasiados intentos de login."))
+                .when(loginThrottle).acquire(eq("admin"), any());
+
         mockMvc.perform(post("/api/auth/login")
                         .with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.code").value("TOO_MANY_REQUESTS"));
+
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void logout_ShouldRevokeBearerToken() throws Exception {
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+        when(tokenProvider.parseClaims("jwt-a-revocar"))
+                .thenReturn(Optional.of(Jwts.claims().setSubject("admin").setId("jti-1").setExpiration(expiration)));
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .with(csrf())
+                        .header("Authorization", "Bearer jwt-a-revocar"))
+                .andExpect(status().isNoContent());
+
+        verify(tokenRevocationList).revoke(eq("jti-1"), eq("admin"), any(Date.class));
+    }
+
+    @Test
+    @WithMockUser
+    void revokeToken_ShouldReturn401_WhenTokenIsInvalid() throws Exception {
+        when(tokenProvider.parseClaims("basura")).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/auth/revoke")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RevokeTokenRequestDTO("basura"))))
                 .andExpect(status().isUnauthorized());
+
+        verify(tokenRevocationList, never()).revoke(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void revokeToken_ShouldRevokeGivenToken() throws Exception {
+        when(tokenProvider.parseClaims("comprometido"))
+                .thenReturn(Optional.of(Jwts.claims().setSubject("admin").setId("jti-2").setExpiration(new Date(System.currentTimeMillis() + 60000))));
+
+        mockMvc.perform(post("/api/auth/revoke")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RevokeTokenRequestDTO("comprometido"))))
+                .andExpect(status().isNoContent());
+
+        verify(tokenRevocationList).revoke(eq("jti-2"), eq("admin"), any(Date.class));
     }
-}
\ No newline at end of file
+}
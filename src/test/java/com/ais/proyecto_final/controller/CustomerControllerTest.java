@@ -2,9 +2,14 @@ package com.ais.proyecto_final.controller;
 
 import com.ais.proyecto_final.dto.customer.AddressRequestDTO;
 import com.ais.proyecto_final.dto.customer.AddressResponseDTO;
+import com.ais.proyecto_final.dto.customer.CustomerImportProgressDTO;
 import com.ais.proyecto_final.dto.customer.CustomerRequestDTO;
 import com.ais.proyecto_final.dto.customer.CustomerResponseDTO;
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.entity.ImportStatus;
+import com.ais.proyecto_final.service.customer.CustomerImportService;
 import com.ais.proyecto_final.service.customer.CustomerService;
+import com.ais.proyecto_final.service.importing.ImportFormat;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +50,9 @@ class CustomerControllerTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerImportService customerImportService;
+
     private CustomerRequestDTO customerRequest;
     private CustomerResponseDTO customerResponse;
     private AddressRequestDTO addressRequest;
@@ -91,6 +99,35 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void importCustomers_ShouldStreamNdjsonBodyWithJobId() throws Exception {
+        when(customerImportService.importCustomers(eq("crm-1"), any()))
+                .thenReturn(ImportResultDTO.builder().jobId("crm-1").resumedFromLine(1L).rows(1).created(1).errors(List.of()).build());
+
+        mockMvc.perform(post("/api/customers/import")
+                        .with(csrf())
+                        .param("jobId", "crm-1")
+                        .contentType(ImportFormat.APPLICATION_NDJSON_VALUE)
+                        .content("{\"fullName\":\"Test User\",\"email\":\"test@user.com\",\"phone\":\"123456\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobId").value("crm-1"))
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
+    @Test
+    void getImportProgress_ShouldReturnCheckpoint() throws Exception {
+        when(customerImportService.getProgress("crm-1")).thenReturn(CustomerImportProgressDTO.builder()
+                .jobId("crm-1")
+                .status(ImportStatus.RUNNING)
+                .committedLine(1000)
+                .build());
+
+        mockMvc.perform(get("/api/customers/import/crm-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.committedLine").value(1000));
+    }
+
     @Test
     void getAllCustomers_ShouldReturnPage() throws Exception {
         
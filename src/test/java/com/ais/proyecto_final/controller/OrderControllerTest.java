@@ -1,11 +1,17 @@
 package com.ais.proyecto_final.controller;
 
+import com.ais.proyecto_final.dto.order.BulkOrderStatusResultDTO;
+import com.ais.proyecto_final.dto.order.BulkOrderStatusUpdateDTO;
 import com.ais.proyecto_final.dto.order.LineItemRequestDTO;
+import com.ais.proyecto_final.dto.order.OrderCursorPageDTO;
 import com.ais.proyecto_final.dto.order.OrderRequestDTO;
 import com.ais.proyecto_final.dto.order.OrderResponseDTO;
 import com.ais.proyecto_final.dto.order.OrderStatusUpdateDTO;
 import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.exceptions.DuplicateResourceException;
+import com.ais.proyecto_final.service.idempotency.IdempotencyService;
 import com.ais.proyecto_final.service.order.OrderService;
+import com.ais.proyecto_final.service.order.OrderStatusStream;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +26,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -27,10 +34,13 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -47,6 +57,12 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private OrderStatusStream orderStatusStream;
+
     private OrderRequestDTO orderRequest;
     private OrderResponseDTO orderResponse;
     private OrderStatusUpdateDTO statusUpdate;
@@ -91,6 +107,34 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void createOrder_ShouldDelegateToIdempotencyService_WhenKeyPresent() throws Exception {
+        when(idempotencyService.createOrder(eq("clave-1"), any(OrderRequestDTO.class))).thenReturn(orderResponse);
+
+        mockMvc.perform(post("/api/orders")
+                        .with(csrf())
+                        .header("Idempotency-Key", "clave-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(orderService, never()).createOrder(any(OrderRequestDTO.class));
+    }
+
+    @Test
+    void createOrder_ShouldReturn409_WhenKeyReusedWithDifferentPayload() throws Exception {
+        when(idempotencyService.createOrder(eq("clave-1"), any(OrderRequestDTO.class)))
+                .thenThrow(new DuplicateResourceException("La Idempotency-Key ya se usó con una petición distinta."));
+
+        mockMvc.perform(post("/api/orders")
+                        .with(csrf())
+                        .header("Idempotency-Key", "clave-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void findAllOrders_ShouldReturnPage() throws Exception {
         
@@ -107,6 +151,38 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.content[0].id").value(1L));
     }
 
+    @Test
+    void scrollOrders_ShouldReturnCursorPage() throws Exception {
+        OrderCursorPageDTO cursorPage = OrderCursorPageDTO.builder()
+                .content(List.of(orderResponse))
+                .nextCursor("abc")
+                .hasNext(true)
+                .build();
+        when(orderService.scrollOrders(any(), any(), any(), eq(OrderStatus.CREATED), eq("xyz"), eq(5))).thenReturn(cursorPage);
+
+        mockMvc.perform(get("/api/orders/scroll")
+                        .param("cursor", "xyz")
+                        .param("size", "5")
+                        .param("status", "CREATED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void streamOrderStatus_ShouldOpenSseStream_ResumingFromLastEventId() throws Exception {
+        when(orderStatusStream.subscribe("a1b2c3d4-42", OrderStatus.PAID)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/orders/stream")
+                        .header("Last-Event-ID", "a1b2c3d4-42")
+                        .param("status", "PAID")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(orderStatusStream).subscribe("a1b2c3d4-42", OrderStatus.PAID);
+    }
+
     @Test
     void getOrderById_ShouldReturn200_WhenFound() throws Exception {
         
@@ -142,4 +218,39 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("PAID"));
     }
+
+    @Test
+    void bulkUpdateOrderStatus_ShouldReturnPerIdOutcomes() throws Exception {
+        BulkOrderStatusUpdateDTO bulkUpdate = BulkOrderStatusUpdateDTO.builder()
+                .orderIds(List.of(1L, 2L))
+                .status(OrderStatus.SHIPPED)
+                .build();
+        BulkOrderStatusResultDTO result = BulkOrderStatusResultDTO.builder()
+                .status(OrderStatus.SHIPPED)
+                .updated(1)
+                .results(List.of(
+                        BulkOrderStatusResultDTO.Item.builder().orderId(1L).outcome(BulkOrderStatusResultDTO.Outcome.UPDATED).previousStatus(OrderStatus.PAID).build(),
+                        BulkOrderStatusResultDTO.Item.builder().orderId(2L).outcome(BulkOrderStatusResultDTO.Outcome.NOT_FOUND).build()))
+                .build();
+        when(orderService.bulkUpdateOrderStatus(any(BulkOrderStatusUpdateDTO.class))).thenReturn(result);
+
+        mockMvc.perform(put("/api/orders/status")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkUpdate)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[1].outcome").value("NOT_FOUND"));
+    }
+
+    @Test
+    void bulkUpdateOrderStatus_ShouldReturn400_WhenIdsAreEmpty() throws Exception {
+        mockMvc.perform(put("/api/orders/status")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\":[],\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).bulkUpdateOrderStatus(any());
+    }
 }
\ No newline at end of file
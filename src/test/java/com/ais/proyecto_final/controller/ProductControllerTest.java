@@ -1,7 +1,11 @@
 package com.ais.proyecto_final.controller;
 
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
 import com.ais.proyecto_final.dto.product.ProductRequestDTO;
 import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import com.ais.proyecto_final.dto.product.ProductSuggestionDTO;
+import com.ais.proyecto_final.service.importing.ImportFormat;
+import com.ais.proyecto_final.service.product.ProductImportService;
 import com.ais.proyecto_final.service.product.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -45,6 +49,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
     private ProductRequestDTO productRequest;
     private ProductResponseDTO productResponse;
     private String productRequestJson;
@@ -89,7 +96,7 @@ class ProductControllerTest {
     void getAllProducts_ShouldReturnPage_WhenCalledWithFilters() throws Exception {
         // (Datos del log: name=Test, active=true, page=0, size=5)
         Page<ProductResponseDTO> responsePage = new PageImpl<>(List.of(productResponse));
-        when(productService.findAllProducts(eq("Test"), eq(true), any(Pageable.class)))
+        when(productService.findAllProducts(eq("Test"), eq(true), eq(true), any(Pageable.class)))
                 .thenReturn(responsePage);
         mockMvc.perform(get("/api/products")
                         .param("name", "Test")
@@ -100,6 +107,32 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.content[0].id").value(1L));
     }
 
+    @Test
+    void autocomplete_ShouldReturnSuggestions() throws Exception {
+        when(productService.autocomplete("tes", 5))
+                .thenReturn(List.of(new ProductSuggestionDTO(1L, "SKU001", "Test Product")));
+
+        mockMvc.perform(get("/api/products/autocomplete")
+                        .param("q", "tes")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].name").value("Test Product"));
+    }
+
+    @Test
+    void importProducts_ShouldStreamCsvBodyToImportService() throws Exception {
+        when(productImportService.importProducts(any(), eq(ImportFormat.CSV)))
+                .thenReturn(ImportResultDTO.builder().rows(1).created(1).errors(List.of()).build());
+
+        mockMvc.perform(post("/api/products/import")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("sku,name,price,stock\nSKU001,Test Product,10,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
     @Test
     void getProductById_ShouldReturn404_WhenNotFound() throws Exception {
         when(productService.getProductById(99L))
@@ -108,6 +141,14 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getProductBySku_ShouldReturn200_WhenFound() throws Exception {
+        when(productService.getProductBySku("SKU001")).thenReturn(productResponse);
+        mockMvc.perform(get("/api/products/sku/SKU001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
     @Test
     void createProduct_ShouldReturn400_WhenSkuIsBlank() throws Exception {
 
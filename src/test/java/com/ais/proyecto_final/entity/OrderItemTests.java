@@ -16,13 +16,14 @@ class OrderItemTests {
     @Test
     void lombokAllArgsConstructorWorks() {
         BigDecimal price = new BigDecimal("25.99");
-        OrderItem item = new OrderItem(1L, mockOrder, mockProduct, 5, price);
+        OrderItem item = new OrderItem(1L, mockOrder, mockProduct, 5, price, false);
 
         assertEquals(1L, item.getId());
         assertEquals(mockOrder, item.getOrder());
         assertEquals(mockProduct, item.getProduct());
         assertEquals(5, item.getQuantity());
         assertEquals(price, item.getUnitPrice());
+        assertFalse(item.isStockPending());
     }
 
     @Test
@@ -1,25 +1,42 @@
 package com.ais.proyecto_final.repository;
 
+import com.ais.proyecto_final.dto.order.OrderResponseDTO;
 import com.ais.proyecto_final.entity.Address;
 import com.ais.proyecto_final.entity.Customer;
 import com.ais.proyecto_final.entity.Order;
+import com.ais.proyecto_final.entity.OrderItem;
 import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.entity.Product;
+import com.ais.proyecto_final.mappers.OrderItemMapperImpl;
+import com.ais.proyecto_final.mappers.OrderMapper;
+import com.ais.proyecto_final.mappers.OrderMapperImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OrderMapperImpl.class, OrderItemMapperImpl.class})
 class OrderRepositoryTest {
 
     @Autowired
@@ -28,6 +45,12 @@ class OrderRepositoryTest {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
     private Customer c1;
     private Customer c2;
     private Address a1;
@@ -129,4 +152,152 @@ class OrderRepositoryTest {
         Page<Order> result = orderRepository.findAll(spec, PageRequest.of(0, 5));
         assertEquals(1, result.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void scrollOrders_ShouldWalkNewestFirstWithoutCount() {
+        Specification<Order> spec = OrderSpecification.filterOrders(null, null, null, null);
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Window<Order> first = orderRepository.scrollOrders(spec, ScrollPosition.keyset(), 2);
+
+        assertEquals(2, first.size());
+        assertTrue(first.hasNext());
+        // mismo orderDate: desempata el id descendente
+        assertEquals(o3_c2_created_today.getId(), first.getContent().get(0).getId());
+        assertEquals(o2_c1_shipped_today.getId(), first.getContent().get(1).getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        Order last = first.getContent().get(1);
+        Window<Order> second = orderRepository.scrollOrders(spec,
+                ScrollPosition.forward(Map.of("orderDate", last.getOrderDate(), "id", last.getId())), 2);
+
+        assertEquals(1, second.size());
+        assertFalse(second.hasNext());
+        assertEquals(o1_c1_created_yesterday.getId(), second.getContent().get(0).getId());
+    }
+
+    @Test
+    void scrollOrders_ShouldApplyFilters() {
+        Specification<Order> spec = OrderSpecification.filterOrders(c1.getId(), null, null, null);
+
+        Window<Order> window = orderRepository.scrollOrders(spec, ScrollPosition.keyset(), 5);
+
+        assertEquals(2, window.size());
+        assertFalse(window.hasNext());
+    }
+
+    @Test
+    void pageWithItems_ShouldMapWithConstantNumberOfStatements() {
+        Product p1 = Product.builder().sku("SKU-N1").name("Tuerca").price(BigDecimal.ONE).stock(10).active(true).build();
+        Product p2 = Product.builder().sku("SKU-N2").name("Arandela").price(BigDecimal.ONE).stock(10).active(true).build();
+        entityManager.persist(p1);
+        entityManager.persist(p2);
+        for (Order order : List.of(o1_c1_created_yesterday, o2_c1_shipped_today, o3_c2_created_today)) {
+            entityManager.persist(OrderItem.builder().order(order).product(p1).quantity(1).unitPrice(BigDecimal.ONE).build());
+            entityManager.persist(OrderItem.builder().order(order).product(p2).quantity(2).unitPrice(BigDecimal.ONE).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Page<Order> page = orderRepository.findAll(OrderSpecification.filterOrders(null, null, null, null), PageRequest.of(0, 2));
+        List<Long> ids = page.getContent().stream().map(Order::getId).toList();
+        Map<Long, Order> withItems = new HashMap<>();
+        orderRepository.findWithItemsByIdIn(ids).forEach(order -> withItems.put(order.getId(), order));
+        page.getContent().forEach(order -> {
+            OrderResponseDTO dto = orderMapper.toResponseDto(withItems.get(order.getId()));
+            assertEquals(2, dto.getItems().size());
+        });
+
+        // página + COUNT + líneas de toda la página; sin consultas por pedido, cliente, dirección ni producto
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithItemsById_ShouldLoadOrderAndItemsInOneStatement() {
+        entityManager.persist(OrderItem.builder().order(o1_c1_created_yesterday)
+                .product(entityManager.persist(Product.builder().sku("SKU-N3").name("Perno").price(BigDecimal.ONE).stock(10).active(true).build()))
+                .quantity(1).unitPrice(BigDecimal.ONE).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Order order = orderRepository.findWithItemsById(o1_c1_created_yesterday.getId()).orElseThrow();
+        OrderResponseDTO dto = orderMapper.toResponseDto(order);
+
+        assertEquals(1, dto.getItems().size());
+        assertEquals(c1.getId(), dto.getCustomerId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void save_ShouldBatchInsertsOfLargeOrder() {
+        Product product = Product.builder().sku("SKU-BATCH").name("Tornillo").price(BigDecimal.ONE).stock(1000).active(true).build();
+        entityManager.persist(product);
+        entityManager.flush();
+
+        Order order = Order.builder()
+                .customer(c1).shippingAddress(a1)
+                .orderDate(LocalDateTime.now())
+                .status(OrderStatus.CREATED)
+                .total(new BigDecimal("50"))
+                .build();
+        for (int i = 0; i < 50; i++) {
+            order.getItems().add(OrderItem.builder()
+                    .order(order).product(product).quantity(1).unitPrice(BigDecimal.ONE)
+                    .build());
+        }
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        orderRepository.save(order);
+        entityManager.flush();
+
+        // con IDENTITY eran 51 INSERT sueltos; ahora un lote por tabla más alguna llamada a las secuencias
+        assertEquals(51, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "Se prepararon " + statistics.getPrepareStatementCount() + " sentencias");
+    }
+
+    @Test
+    void bulkStatusChange_ShouldLockUpdateAndAggregateItemsWithSetBasedStatements() {
+        Product p1 = Product.builder().sku("SKU-B1").name("Tuerca").price(BigDecimal.ONE).stock(10).active(true).build();
+        Product p2 = Product.builder().sku("SKU-B2").name("Arandela").price(BigDecimal.ONE).stock(10).active(true).build();
+        entityManager.persist(p1);
+        entityManager.persist(p2);
+        for (Order order : List.of(o1_c1_created_yesterday, o3_c2_created_today)) {
+            entityManager.persist(OrderItem.builder().order(order).product(p1).quantity(1).unitPrice(BigDecimal.ONE).build());
+            entityManager.persist(OrderItem.builder().order(order).product(p2).quantity(3).unitPrice(BigDecimal.ONE).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = List.of(o3_c2_created_today.getId(), o1_c1_created_yesterday.getId());
+
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<Order> locked = orderRepository.lockAllByIdIn(ids);
+        Map<Long, Long> quantities = new HashMap<>();
+        orderItemRepository.sumQuantityByProductForOrders(ids)
+                .forEach(line -> quantities.put(line.getProductId(), line.getQuantity()));
+        int updated = orderRepository.updateStatus(ids, OrderStatus.CANCELLED);
+
+        assertEquals(2, locked.size());
+        assertTrue(locked.get(0).getId() < locked.get(1).getId());
+        assertEquals(Map.of(p1.getId(), 2L, p2.getId(), 6L), quantities);
+        assertEquals(2, updated);
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(o1_c1_created_yesterday.getId()).orElseThrow().getStatus());
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+}
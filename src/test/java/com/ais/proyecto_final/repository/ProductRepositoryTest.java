@@ -1,6 +1,8 @@
 package com.ais.proyecto_final.repository;
 
+import com.ais.proyecto_final.dto.product.ProductResponseDTO;
 import com.ais.proyecto_final.entity.Product;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +11,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,6 +101,62 @@ class ProductRepositoryTest {
         assertEquals(1, resultNameOInactive.getTotalElements());
         assertEquals("SKU003", resultNameOInactive.getContent().get(0).getSku());
     }
+    @Test
+    void decrementStockIfAvailable_ShouldOnlyUpdateActiveProductsWithEnoughStock() {
+        assertEquals(1, productRepository.decrementStockIfAvailable(p1_active_laptop.getId(), 4));
+        assertEquals(0, productRepository.decrementStockIfAvailable(p1_active_laptop.getId(), 7));
+        assertEquals(0, productRepository.decrementStockIfAvailable(p3_inactive_monitor.getId(), 1));
+
+        entityManager.clear();
+        assertEquals(6, entityManager.find(Product.class, p1_active_laptop.getId()).getStock());
+        assertEquals(5, entityManager.find(Product.class, p3_inactive_monitor.getId()).getStock());
+    }
+
+    @Test
+    void decrementStockBatch_ShouldApplyAvailableLinesAndReturnRejectedOnes() {
+        Set<Long> rejected = productRepository.decrementStockBatch(Map.of(
+                p1_active_laptop.getId(), 10,
+                p2_active_teclado.getId(), 51,
+                p3_inactive_monitor.getId(), 1));
+
+        assertEquals(Set.of(p2_active_teclado.getId(), p3_inactive_monitor.getId()), rejected);
+
+        entityManager.clear();
+        assertEquals(0, entityManager.find(Product.class, p1_active_laptop.getId()).getStock());
+        assertEquals(50, entityManager.find(Product.class, p2_active_teclado.getId()).getStock());
+    }
+
+    @Test
+    void incrementStockBatch_ShouldAddStockAndReturnMissingProducts() {
+        Set<Long> missing = productRepository.incrementStockBatch(Map.of(
+                p1_active_laptop.getId(), 5,
+                p3_inactive_monitor.getId(), 2,
+                999L, 1));
+
+        assertEquals(Set.of(999L), missing);
+
+        entityManager.clear();
+        assertEquals(15, entityManager.find(Product.class, p1_active_laptop.getId()).getStock());
+        assertEquals(7, entityManager.find(Product.class, p3_inactive_monitor.getId()).getStock());
+    }
+
+    @Test
+    void stockUpdates_ShouldTouchUpdatedAt() {
+        LocalDateTime old = LocalDateTime.of(2000, 1, 1, 0, 0);
+        entityManager.getEntityManager().createNativeQuery("UPDATE products SET updated_at = ?")
+                .setParameter(1, old)
+                .executeUpdate();
+
+        productRepository.decrementStockIfAvailable(p1_active_laptop.getId(), 1);
+        productRepository.addStock(p2_active_teclado.getId(), 1);
+        productRepository.incrementStockBatch(Map.of(p3_inactive_monitor.getId(), 1));
+
+        entityManager.clear();
+        assertTrue(entityManager.find(Product.class, p1_active_laptop.getId()).getUpdatedAt().isAfter(old));
+        assertTrue(entityManager.find(Product.class, p2_active_teclado.getId()).getUpdatedAt().isAfter(old));
+        assertTrue(entityManager.find(Product.class, p3_inactive_monitor.getId()).getUpdatedAt().isAfter(old));
+    }
+
     @Test
     void testProductSpecificationConstructor() {
         // Prueba para la cobertura del constructor por defecto
@@ -120,4 +182,46 @@ class ProductRepositoryTest {
         Page<Product> resultEmptyName = productRepository.findAll(specEmptyName, pageable);
         assertEquals(2, resultEmptyName.getTotalElements());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findSummaries_ShouldProjectFilteredAndSortedPage() {
+        p1_active_laptop.setDescription("Portátil para juegos");
+        entityManager.flush();
+        Specification<Product> spec = ProductSpecification.nameContains(null).and(ProductSpecification.isActive(true));
+
+        Page<ProductResponseDTO> result = productRepository.findSummaries(spec, PageRequest.of(0, 1, Sort.by("name")), true);
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        ProductResponseDTO first = result.getContent().get(0);
+        assertEquals(p1_active_laptop.getId(), first.getId());
+        assertEquals("SKU001", first.getSku());
+        assertEquals("Portátil para juegos", first.getDescription());
+        assertEquals(10, first.getStock());
+        assertTrue(first.isActive());
+        assertNotNull(first.getCreatedAt());
+    }
+
+    @Test
+    void findSummaries_ShouldLeaveDescriptionOut_WhenNotRequested() {
+        p1_active_laptop.setDescription("Portátil para juegos");
+        entityManager.flush();
+
+        Page<ProductResponseDTO> result = productRepository.findSummaries(
+                ProductSpecification.nameContains("laptop"), PageRequest.of(0, 10), false);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Laptop Gamer", result.getContent().get(0).getName());
+        assertNull(result.getContent().get(0).getDescription());
+    }
+
+    @Test
+    void findSummaries_ShouldNotManageEntities() {
+        entityManager.clear();
+
+        productRepository.findSummaries(ProductSpecification.isActive(null), PageRequest.of(0, 10), true);
+
+        // las filas llegan como DTO: el contexto de persistencia sigue vacío
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
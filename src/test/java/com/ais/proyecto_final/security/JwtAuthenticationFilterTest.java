@@ -1,5 +1,7 @@
 package com.ais.proyecto_final.security;
 
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +10,6 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
@@ -19,6 +20,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -27,7 +30,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class JwtAuthenticationFilterTest {
 
-    @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Mock
@@ -40,10 +42,18 @@ class JwtAuthenticationFilterTest {
     private HttpServletResponse response;
     @Mock
     private FilterChain filterChain;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    private VerifiedTokenCache verifiedTokenCache;
 
     @BeforeEach
     void setUp() {
         SecurityContextHolder.clearContext();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(meterRegistry, 100, 300);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(tokenProvider,
+                new UserDetailsCache(userDetailsService, meterRegistry, 100, 300), verifiedTokenCache, tokenRevocationList);
     }
 
     @AfterEach
@@ -59,8 +69,7 @@ class JwtAuthenticationFilterTest {
         UserDetails userDetails = new User(username, "password", new ArrayList<>());
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenProvider.validateToken(token)).thenReturn(true);
-        when(tokenProvider.getUsernameFromToken(token)).thenReturn(username);
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.of(Jwts.claims().setSubject(username).setId("jti-1").setExpiration(inOneMinute())));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         
@@ -71,6 +80,8 @@ class JwtAuthenticationFilterTest {
         assertNotNull(auth);
         assertTrue(auth.isAuthenticated());
         assertEquals(username, ((UserDetails) auth.getPrincipal()).getUsername());
+        verify(tokenProvider, times(1)).parseClaims(token);
+        verifyNoMoreInteractions(tokenProvider);
         verify(filterChain, times(1)).doFilter(request, response);
     }
 
@@ -107,7 +118,7 @@ class JwtAuthenticationFilterTest {
         
         String token = "invalid-jwt-token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenProvider.validateToken(token)).thenReturn(false);
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.empty());
 
         
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -123,8 +134,8 @@ class JwtAuthenticationFilterTest {
         
         String token = "valid-token-but-fails";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenProvider.validateToken(token)).thenReturn(true);
-        when(tokenProvider.getUsernameFromToken(token)).thenThrow(new RuntimeException("Test Exception"));
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.of(Jwts.claims().setSubject("admin").setId("jti-1").setExpiration(inOneMinute())));
+        when(userDetailsService.loadUserByUsername("admin")).thenThrow(new RuntimeException("Test Exception"));
 
         
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -134,4 +145,58 @@ class JwtAuthenticationFilterTest {
         assertNull(auth);
         verify(filterChain, times(1)).doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    @Test
+    void doFilterInternal_ShouldSkipVerificationAndUserLookup_WhenTokenIsCached() throws ServletException, IOException {
+        String token = "cached-jwt-token";
+        UserDetails userDetails = new User("admin", "password", new ArrayList<>());
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.of(Jwts.claims().setSubject("admin").setId("jti-1").setExpiration(inOneMinute())));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(userDetails);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(auth);
+        assertEquals("admin", ((UserDetails) auth.getPrincipal()).getUsername());
+        verify(tokenProvider, times(1)).parseClaims(token);
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+    }
+
+    @Test
+    void doFilterInternal_ShouldVerifyAgain_WhenCachedTokenHasExpired() throws ServletException, IOException {
+        String token = "expired-jwt-token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        verifiedTokenCache.put(token, new Date(System.currentTimeMillis() - 1000), "admin", "jti-1");
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.empty());
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(tokenProvider, times(1)).parseClaims(token);
+    }
+
+    @Test
+    void doFilterInternal_ShouldRejectRevokedToken_EvenWhenCached() throws ServletException, IOException {
+        String token = "revoked-jwt-token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenProvider.parseClaims(token)).thenReturn(Optional.of(Jwts.claims().setSubject("admin").setId("jti-1").setExpiration(inOneMinute())));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(new User("admin", "password", new ArrayList<>()));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        SecurityContextHolder.clearContext();
+        when(tokenRevocationList.isRevoked("jti-1")).thenReturn(true);
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain, times(2)).doFilter(request, response);
+    }
+
+    private Date inOneMinute() {
+        return new Date(System.currentTimeMillis() + 60000);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ais.proyecto_final.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -16,6 +17,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -36,6 +38,7 @@ class JwtTokenProviderTest {
     void setUp() {
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", testSecret);
         ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", testExpirationMs);
+        jwtTokenProvider.init();
     }
 
     @Test
@@ -109,4 +112,40 @@ class JwtTokenProviderTest {
 
         assertEquals("testuser", username);
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseClaims_ShouldReturnClaims_ForValidToken() {
+        when(authentication.getName()).thenReturn("admin");
+        String token = jwtTokenProvider.generateToken(authentication);
+
+        Optional<Claims> claims = jwtTokenProvider.parseClaims(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("admin", claims.get().getSubject());
+        assertNotNull(claims.get().getExpiration());
+        assertNotNull(claims.get().getId());
+    }
+
+    @Test
+    void parseClaims_ShouldReturnEmpty_ForTokenSignedWithOtherKey() {
+        SecretKey otherKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(
+                "T3RyYSBjbGF2ZSBzZWNyZXRhIGRpc3RpbnRhIHBhcmEgZmlybWFyIHRva2VucyBKV1Qu"));
+        String foreign = Jwts.builder()
+                .setSubject("admin")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(otherKey, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(jwtTokenProvider.parseClaims(foreign).isEmpty());
+    }
+
+    @Test
+    void init_ShouldBuildKeyOnce() {
+        Object key = ReflectionTestUtils.getField(jwtTokenProvider, "key");
+        when(authentication.getName()).thenReturn("admin");
+
+        jwtTokenProvider.parseClaims(jwtTokenProvider.generateToken(authentication));
+
+        assertSame(key, ReflectionTestUtils.getField(jwtTokenProvider, "key"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.ais.proyecto_final.security;
+
+import com.ais.proyecto_final.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginExecutorTest {
+
+    private final LoginExecutor loginExecutor = new LoginExecutor(new SimpleMeterRegistry(), 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        loginExecutor.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunTaskOffCallerThread() throws Exception {
+        String threadName = loginExecutor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(threadName.startsWith("login-"));
+    }
+
+    @Test
+    void submit_ShouldRejectWith429_WhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        loginExecutor.submit(() -> await(release));
+        loginExecutor.submit(() -> await(release));
+
+        assertThrows(TooManyRequestsException.class, () -> loginExecutor.submit(() -> "rechazado"));
+        release.countDown();
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
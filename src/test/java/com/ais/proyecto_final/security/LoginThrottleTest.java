@@ -0,0 +1,44 @@
+package com.ais.proyecto_final.security;
+
+import com.ais.proyecto_final.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    @Test
+    void acquire_ShouldRejectUsernameAfterCapacityIsSpent() {
+        LoginThrottle throttle = new LoginThrottle(3, 100, 1, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("admin", "10.0.0." + i);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("ADMIN", "10.0.0.9"));
+        assertDoesNotThrow(() -> throttle.acquire("otro", "10.0.0.9"));
+    }
+
+    @Test
+    void acquire_ShouldRejectIpTryingManyUsernames() {
+        LoginThrottle throttle = new LoginThrottle(100, 3, 1, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("user9", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.acquire("user9", "10.0.0.2"));
+    }
+
+    @Test
+    void tokenBucket_ShouldRefillOverTime() throws InterruptedException {
+        // 60000 por minuto = 1 por milisegundo
+        LoginThrottle.TokenBucket bucket = new LoginThrottle.TokenBucket(1, 60000 / 60_000_000_000.0);
+
+        assertTrue(bucket.tryConsume());
+        assertFalse(bucket.tryConsume());
+        Thread.sleep(20);
+        assertTrue(bucket.tryConsume());
+    }
+}
@@ -0,0 +1,62 @@
+package com.ais.proyecto_final.security;
+
+import com.ais.proyecto_final.entity.RevokedToken;
+import com.ais.proyecto_final.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository);
+    }
+
+    @Test
+    void revoke_ShouldPersistAndBlockToken() {
+        tokenRevocationList.revoke("jti-1", "admin", new Date(System.currentTimeMillis() + 60000));
+
+        assertTrue(tokenRevocationList.isRevoked("jti-1"));
+        assertFalse(tokenRevocationList.isRevoked("jti-2"));
+        verify(revokedTokenRepository).save(argThat(token -> "jti-1".equals(token.getJti()) && "admin".equals(token.getUsername())));
+    }
+
+    @Test
+    void revoke_ShouldIgnoreTokensWithoutJti() {
+        tokenRevocationList.revoke(null, "admin", new Date(System.currentTimeMillis() + 60000));
+
+        assertFalse(tokenRevocationList.isRevoked(null));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void sync_ShouldLoadRevocationsFromOtherInstancesAndPruneExpired() {
+        tokenRevocationList.revoke("expired", "admin", new Date(System.currentTimeMillis() - 1000));
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                RevokedToken.builder().jti("remote").username("admin").expiresAt(LocalDateTime.now().plusHours(1)).build()));
+
+        tokenRevocationList.sync();
+
+        assertTrue(tokenRevocationList.isRevoked("remote"));
+        assertFalse(tokenRevocationList.isRevoked("expired"));
+        assertEquals(1, tokenRevocationList.size());
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+}
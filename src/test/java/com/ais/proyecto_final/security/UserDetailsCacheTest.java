@@ -0,0 +1,69 @@
+package com.ais.proyecto_final.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache userDetailsCache;
+    private final UserDetails admin = new User("admin", "password", new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(userDetailsService, meterRegistry, 100, 300);
+    }
+
+    @Test
+    void loadUserByUsername_ShouldHitSourceOnlyOnce() {
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(admin);
+
+        userDetailsCache.loadUserByUsername("admin");
+        UserDetails result = userDetailsCache.loadUserByUsername("admin");
+
+        assertSame(admin, result);
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void invalidate_ShouldReloadFromSource() {
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(admin);
+
+        userDetailsCache.loadUserByUsername("admin");
+        userDetailsCache.invalidate("admin");
+        userDetailsCache.loadUserByUsername("admin");
+        userDetailsCache.invalidateAll();
+        userDetailsCache.loadUserByUsername("admin");
+
+        verify(userDetailsService, times(3)).loadUserByUsername("admin");
+    }
+
+    @Test
+    void loadUserByUsername_ShouldNotCacheMissingUsers() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("ghost"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.loadUserByUsername("ghost"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("ghost");
+    }
+}
@@ -0,0 +1,278 @@
+package com.ais.proyecto_final.service.customer;
+
+import com.ais.proyecto_final.dto.customer.CustomerImportProgressDTO;
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.dto.importing.ImportRowErrorDTO;
+import com.ais.proyecto_final.entity.Address;
+import com.ais.proyecto_final.entity.Customer;
+import com.ais.proyecto_final.entity.ImportCheckpoint;
+import com.ais.proyecto_final.entity.ImportStatus;
+import com.ais.proyecto_final.exceptions.DuplicateResourceException;
+import com.ais.proyecto_final.exceptions.InvalidImportException;
+import com.ais.proyecto_final.mappers.AddressMapper;
+import com.ais.proyecto_final.mappers.AddressMapperImpl;
+import com.ais.proyecto_final.mappers.CustomerMapper;
+import com.ais.proyecto_final.mappers.CustomerMapperImpl;
+import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.repository.ImportCheckpointRepository;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({CustomerMapperImpl.class, AddressMapperImpl.class})
+// cada lote debe confirmarse en su propia transacción, como en producción
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerImportServiceImplTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ImportCheckpointRepository importCheckpointRepository;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private AddressMapper addressMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UniquenessFilters uniquenessFilters;
+    private CustomerImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        uniquenessFilters = mock(UniquenessFilters.class);
+        when(uniquenessFilters.emailMightExist(any())).thenReturn(true);
+        importService = new CustomerImportServiceImpl(customerRepository, importCheckpointRepository, customerMapper,
+                addressMapper, Validation.buildDefaultValidatorFactory().getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(), transactionTemplate, uniquenessFilters, 2, 100, 4096, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAll();
+        importCheckpointRepository.deleteAll();
+    }
+
+    @Test
+    void importCustomers_ShouldInsertCustomersWithAddressesAndReportBadRows() throws Exception {
+        customerRepository.save(Customer.builder().fullName("Ya existe").email("existe@test.com").phone("1").build());
+        String ndjson = customer("ana@test.com",
+                "{\"line1\":\"C/ Mayor 1\",\"city\":\"Madrid\",\"postalCode\":\"28001\",\"country\":\"ES\",\"defaultAddress\":true},"
+                        + "{\"line1\":\"C/ Sol 2\",\"city\":\"Madrid\",\"postalCode\":\"28002\",\"country\":\"ES\",\"defaultAddress\":true}")
+                + customer("ana@test.com", "")
+                + customer("existe@test.com", "")
+                + "{\"fullName\":\"Sin email\",\"phone\":\"1\"}\n"
+                + "no es json\n"
+                + customer("luis@test.com", "");
+
+        ImportResultDTO result = importService.importCustomers("crm-1", new StringReader(ndjson));
+
+        assertEquals("crm-1", result.getJobId());
+        assertEquals(6, result.getRows());
+        assertEquals(2, result.getCreated());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), result.getErrors().stream().map(ImportRowErrorDTO::getLine).sorted().toList());
+
+        Customer ana = transactionTemplate.execute(status -> {
+            Customer c = customerRepository.findAll().stream()
+                    .filter(x -> x.getEmail().equals("ana@test.com")).findFirst().orElseThrow();
+            c.getAddresses().size();
+            return c;
+        });
+        assertEquals(2, ana.getAddresses().size());
+        assertEquals(List.of("C/ Sol 2"), ana.getAddresses().stream()
+                .filter(Address::isDefaultAddress).map(Address::getLine1).toList());
+
+        CustomerImportProgressDTO progress = importService.getProgress("crm-1");
+        assertEquals(ImportStatus.COMPLETED, progress.getStatus());
+        assertEquals(6, progress.getCommittedLine());
+        assertEquals(2, progress.getCreated());
+        assertNotNull(progress.getFinishedAt());
+        verify(uniquenessFilters).emailAdded("luis@test.com");
+    }
+
+    @Test
+    void importCustomers_ShouldTreatEmailsThatDifferOnlyInCaseAsDuplicates() throws Exception {
+        String ndjson = customer("Ana@Test.com", "") + customer("ana@test.com", "");
+
+        ImportResultDTO result = importService.importCustomers("crm-case", new StringReader(ndjson));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertEquals(1, customerRepository.count());
+    }
+
+    @Test
+    void importCustomers_ShouldRejectEmailStoredWithDifferentCase() throws Exception {
+        CustomerRepository repository = mock(CustomerRepository.class);
+        when(repository.findExistingEmails(any())).thenReturn(List.of("john@x.com"));
+        CustomerImportServiceImpl service = new CustomerImportServiceImpl(repository, importCheckpointRepository, customerMapper,
+                addressMapper, Validation.buildDefaultValidatorFactory().getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(), transactionTemplate, uniquenessFilters, 2, 100, 4096, 300);
+
+        ImportResultDTO result = service.importCustomers("crm-case-db", new StringReader(customer("John@X.com", "")));
+
+        assertEquals(0, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals("El email ya está en uso.", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importCustomers_ShouldResumeFromLastCheckpoint() throws Exception {
+        StringBuilder file = new StringBuilder();
+        for (int i = 1; i <= 7; i++) {
+            file.append(customer("cliente" + i + "@test.com", ""));
+        }
+        String firstFiveLines = file.substring(0, nthNewline(file, 5) + 1);
+
+        assertThrows(IOException.class,
+                () -> importService.importCustomers("crm-2", failingAfter(firstFiveLines)));
+
+        CustomerImportProgressDTO interrupted = importService.getProgress("crm-2");
+        assertEquals(ImportStatus.FAILED, interrupted.getStatus());
+        // la línea 5 estaba en un lote sin confirmar
+        assertEquals(4, interrupted.getCommittedLine());
+        assertEquals(4, customerRepository.count());
+
+        ImportResultDTO resumed = importService.importCustomers("crm-2", new StringReader(file.toString()));
+
+        assertEquals(5L, resumed.getResumedFromLine().longValue());
+        assertEquals(3, resumed.getCreated());
+        assertEquals(0, resumed.getFailed());
+        assertEquals(7, customerRepository.count());
+        CustomerImportProgressDTO done = importService.getProgress("crm-2");
+        assertEquals(ImportStatus.COMPLETED, done.getStatus());
+        assertEquals(7, done.getRows());
+        assertEquals(7, done.getCreated());
+    }
+
+    @Test
+    void importCustomers_ShouldRejectJobAlreadyRunning() {
+        transactionTemplate.executeWithoutResult(status -> importCheckpointRepository.save(
+                ImportCheckpoint.builder()
+                        .jobId("crm-3")
+                        .runId("otra-ejecucion")
+                        .status(ImportStatus.RUNNING)
+                        .startedAt(LocalDateTime.now())
+                        .resumedAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build()));
+
+        assertThrows(DuplicateResourceException.class,
+                () -> importService.importCustomers("crm-3", new StringReader("")));
+    }
+
+    @Test
+    void importCustomers_ShouldStop_WhenAnotherRunTakesOverTheJob() {
+        String firstChunk = customer("uno@test.com", "") + customer("dos@test.com", "");
+        String secondChunk = customer("tres@test.com", "") + customer("cuatro@test.com", "");
+        // entre el primer lote y el segundo otra petición da el job por abandonado y lo reclama
+        Reader source = new Reader() {
+            private int reads;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                String next = switch (reads++) {
+                    case 0 -> firstChunk;
+                    case 1 -> {
+                        LocalDateTime now = LocalDateTime.now();
+                        transactionTemplate.executeWithoutResult(status -> importCheckpointRepository.claim(
+                                "crm-4", "otra-ejecucion", ImportStatus.RUNNING, now, now.plusMinutes(1)));
+                        yield secondChunk;
+                    }
+                    default -> null;
+                };
+                if (next == null) {
+                    return -1;
+                }
+                next.getChars(0, next.length(), buffer, offset);
+                return next.length();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(DuplicateResourceException.class, () -> importService.importCustomers("crm-4", source));
+
+        // el segundo lote se deshizo con su checkpoint y el job sigue siendo de la otra ejecución
+        assertEquals(2, customerRepository.count());
+        ImportCheckpoint checkpoint = importCheckpointRepository.findById("crm-4").orElseThrow();
+        assertEquals("otra-ejecucion", checkpoint.getRunId());
+        assertEquals(ImportStatus.RUNNING, checkpoint.getStatus());
+        assertEquals(2, checkpoint.getCommittedLine());
+    }
+
+    @Test
+    void importCustomers_ShouldRejectInvalidJobId() {
+        assertThrows(InvalidImportException.class,
+                () -> importService.importCustomers("../otro", new StringReader("")));
+    }
+
+    @Test
+    void getProgress_ShouldThrowNotFound_WhenJobDoesNotExist() {
+        assertThrows(EntityNotFoundException.class, () -> importService.getProgress("no-existe"));
+    }
+
+    private static String customer(String email, String addresses) {
+        return "{\"fullName\":\"Cliente\",\"email\":\"" + email + "\",\"phone\":\"600000000\",\"addresses\":[" + addresses + "]}\n";
+    }
+
+    private static int nthNewline(CharSequence text, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = text.toString().indexOf('\n', index + 1);
+        }
+        return index;
+    }
+
+    // entrega el contenido y después falla, como una subida cortada a mitad
+    private static Reader failingAfter(String content) {
+        return new Reader() {
+            private final StringReader delegate = new StringReader(content);
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = delegate.read(buffer, offset, length);
+                if (read == -1) {
+                    throw new IOException("conexión cerrada");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+    }
+}
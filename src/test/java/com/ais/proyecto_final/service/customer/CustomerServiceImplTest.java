@@ -10,6 +10,7 @@ import com.ais.proyecto_final.exceptions.DuplicateResourceException;
 import com.ais.proyecto_final.mappers.AddressMapper;
 import com.ais.proyecto_final.mappers.CustomerMapper;
 import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +18,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +50,9 @@ class CustomerServiceImplTest {
     @Mock
     private AddressMapper addressMapper;
 
+    @Mock
+    private UniquenessFilters uniquenessFilters;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -58,6 +65,8 @@ class CustomerServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(uniquenessFilters.emailMightExist(any())).thenReturn(true);
+
         customerRequest = new CustomerRequestDTO();
         customerRequest.setFullName("Juan Perez");
         customerRequest.setEmail("juan.perez@test.com");
@@ -118,6 +127,54 @@ class CustomerServiceImplTest {
     }
 
 
+    @Test
+    void createCustomer_ShouldSkipExistsQuery_WhenBloomFilterRulesEmailOut() {
+        when(uniquenessFilters.emailMightExist("juan.perez@test.com")).thenReturn(false);
+        when(customerMapper.toEntity(customerRequest)).thenReturn(customerEntity);
+        when(customerRepository.save(customerEntity)).thenReturn(customerEntity);
+        when(customerMapper.toResponseDto(customerEntity)).thenReturn(customerResponse);
+
+        customerService.createCustomer(customerRequest);
+
+        verify(customerRepository, never()).existsByEmail(anyString());
+        verify(uniquenessFilters).emailAdded("juan.perez@test.com");
+    }
+
+    @Test
+    void createCustomer_ShouldThrowDuplicate_WhenUniqueIndexRejectsEmail() {
+        when(uniquenessFilters.emailMightExist("juan.perez@test.com")).thenReturn(false);
+        when(customerMapper.toEntity(customerRequest)).thenReturn(customerEntity);
+        when(customerRepository.save(customerEntity)).thenReturn(customerEntity);
+        doThrow(new DataIntegrityViolationException("idx_customer_email")).when(customerRepository).flush();
+
+        assertThrows(DuplicateResourceException.class, () -> customerService.createCustomer(customerRequest));
+    }
+
+    @Test
+    void createCustomer_ShouldThrowDuplicate_WhenHibernateNamesTheColumnUniqueKey() {
+        when(uniquenessFilters.emailMightExist("juan.perez@test.com")).thenReturn(false);
+        when(customerMapper.toEntity(customerRequest)).thenReturn(customerEntity);
+        when(customerRepository.save(customerEntity)).thenReturn(customerEntity);
+        SQLException duplicate = new SQLException("Duplicate entry", "23000", 1062);
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", duplicate, "customers.UKrfbvkrffamfql7cjmen8v976v")))
+                .when(customerRepository).flush();
+
+        assertThrows(DuplicateResourceException.class, () -> customerService.createCustomer(customerRequest));
+    }
+
+    @Test
+    void createCustomer_ShouldRethrow_WhenAnotherConstraintRejectsTheInsert() {
+        when(uniquenessFilters.emailMightExist("juan.perez@test.com")).thenReturn(false);
+        when(customerMapper.toEntity(customerRequest)).thenReturn(customerEntity);
+        when(customerRepository.save(customerEntity)).thenReturn(customerEntity);
+        SQLException tooLong = new SQLException("Value too long for column \"FULL_NAME\"", "22001");
+        doThrow(new DataIntegrityViolationException("could not execute statement", tooLong)).when(customerRepository).flush();
+
+        assertThrows(DataIntegrityViolationException.class, () -> customerService.createCustomer(customerRequest));
+        verify(uniquenessFilters, never()).emailAdded(anyString());
+    }
+
     @Test
     void findAllCustomers_ShouldCallFindByEmail_WhenEmailFilterIsProvided() {
         String email = "test@test.com";
@@ -0,0 +1,219 @@
+package com.ais.proyecto_final.service.idempotency;
+
+import com.ais.proyecto_final.dto.order.LineItemRequestDTO;
+import com.ais.proyecto_final.dto.order.OrderRequestDTO;
+import com.ais.proyecto_final.dto.order.OrderResponseDTO;
+import com.ais.proyecto_final.entity.IdempotencyRecord;
+import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.exceptions.DuplicateResourceException;
+import com.ais.proyecto_final.exceptions.OrderBusinessException;
+import com.ais.proyecto_final.repository.IdempotencyRecordRepository;
+import com.ais.proyecto_final.service.order.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceImplTest {
+
+    private static final String KEY = "clave-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotencyServiceImpl idempotencyService;
+    private OrderRequestDTO orderRequest;
+    private OrderResponseDTO orderResponse;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            record.setCreatedAt(LocalDateTime.now());
+            return record;
+        });
+
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository, orderService, objectMapper, transactionTemplate, 100, 24);
+
+        orderRequest = OrderRequestDTO.builder()
+                .customerId(1L)
+                .shippingAddressId(1L)
+                .items(List.of(LineItemRequestDTO.builder().productId(1L).quantity(2).build()))
+                .build();
+        orderResponse = OrderResponseDTO.builder()
+                .id(10L)
+                .customerId(1L)
+                .shippingAddressId(1L)
+                .status(OrderStatus.CREATED)
+                .total(new BigDecimal("20.00"))
+                .items(List.of())
+                .build();
+    }
+
+    @Test
+    void createOrder_ShouldCreateOrderAndStoreResponse_WhenKeyIsNew() {
+        when(orderService.createOrder(orderRequest)).thenReturn(orderResponse);
+
+        OrderResponseDTO result = idempotencyService.createOrder(KEY, orderRequest);
+
+        assertEquals(10L, result.getId());
+        verify(idempotencyRecordRepository).saveAndFlush(argThat(record ->
+                KEY.equals(record.getIdempotencyKey()) && record.getRequestHash().length() == 64));
+        verify(orderService, times(1)).createOrder(orderRequest);
+    }
+
+    @Test
+    void createOrder_ShouldReplayFromCache_OnRetry() {
+        when(orderService.createOrder(orderRequest)).thenReturn(orderResponse);
+
+        idempotencyService.createOrder(KEY, orderRequest);
+        OrderResponseDTO replayed = idempotencyService.createOrder(KEY, orderRequest);
+
+        assertEquals(10L, replayed.getId());
+        verify(orderService, times(1)).createOrder(any());
+        verify(idempotencyRecordRepository, times(1)).findById(KEY);
+    }
+
+    @Test
+    void createOrder_ShouldReplayFromDatabase_WhenKeyWasStoredEarlier() throws Exception {
+        IdempotencyRecord stored = storedRecord(orderRequest);
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(stored));
+
+        OrderResponseDTO result = idempotencyService.createOrder(KEY, orderRequest);
+
+        assertEquals(10L, result.getId());
+        verify(orderService, never()).createOrder(any());
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void createOrder_ShouldReplayWinner_WhenAnotherInstanceInsertedTheKey() throws Exception {
+        IdempotencyRecord stored = storedRecord(orderRequest);
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty(), Optional.of(stored));
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        OrderResponseDTO result = idempotencyService.createOrder(KEY, orderRequest);
+
+        assertEquals(10L, result.getId());
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void createOrder_ShouldThrowDuplicate_WhenKeyReusedWithDifferentPayload() throws Exception {
+        when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(storedRecord(orderRequest)));
+        OrderRequestDTO other = OrderRequestDTO.builder()
+                .customerId(1L)
+                .shippingAddressId(1L)
+                .items(List.of(LineItemRequestDTO.builder().productId(1L).quantity(5).build()))
+                .build();
+
+        assertThrows(DuplicateResourceException.class, () -> idempotencyService.createOrder(KEY, other));
+        verify(orderService, never()).createOrder(any());
+    }
+
+    @Test
+    void createOrder_ShouldRejectTooLongKey() {
+        String longKey = "k".repeat(101);
+
+        assertThrows(OrderBusinessException.class, () -> idempotencyService.createOrder(longKey, orderRequest));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void createOrder_ShouldAllowRetry_WhenFirstAttemptFailed() {
+        when(orderService.createOrder(orderRequest))
+                .thenThrow(new OrderBusinessException("Stock insuficiente"))
+                .thenReturn(orderResponse);
+
+        assertThrows(OrderBusinessException.class, () -> idempotencyService.createOrder(KEY, orderRequest));
+        OrderResponseDTO result = idempotencyService.createOrder(KEY, orderRequest);
+
+        assertEquals(10L, result.getId());
+        verify(orderService, times(2)).createOrder(orderRequest);
+    }
+
+    @Test
+    void createOrder_ShouldCollapseConcurrentDuplicates() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrder(orderRequest)).thenAnswer(inv -> {
+            entered.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return orderResponse;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<OrderResponseDTO> first = pool.submit(() -> idempotencyService.createOrder(KEY, orderRequest));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            List<Future<OrderResponseDTO>> duplicates = List.of(
+                    pool.submit(() -> idempotencyService.createOrder(KEY, orderRequest)),
+                    pool.submit(() -> idempotencyService.createOrder(KEY, orderRequest)),
+                    pool.submit(() -> idempotencyService.createOrder(KEY, orderRequest)));
+            release.countDown();
+
+            assertEquals(10L, first.get(5, TimeUnit.SECONDS).getId());
+            for (Future<OrderResponseDTO> duplicate : duplicates) {
+                assertEquals(10L, duplicate.get(5, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteRecordsOlderThanTtl() {
+        when(idempotencyRecordRepository.deleteCreatedBefore(any())).thenReturn(3);
+
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyRecordRepository).deleteCreatedBefore(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusHours(23))));
+    }
+
+    private IdempotencyRecord storedRecord(OrderRequestDTO request) throws Exception {
+        String hash = java.util.HexFormat.of().formatHex(java.security.MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsBytes(request)));
+        return IdempotencyRecord.builder()
+                .idempotencyKey(KEY)
+                .requestHash(hash)
+                .orderId(10L)
+                .responseBody(objectMapper.writeValueAsString(orderResponse))
+                .createdAt(LocalDateTime.now())
+                .fresh(false)
+                .build();
+    }
+}
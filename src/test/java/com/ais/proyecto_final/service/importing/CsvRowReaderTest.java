@@ -0,0 +1,77 @@
+package com.ais.proyecto_final.service.importing;
+
+import com.ais.proyecto_final.exceptions.InvalidImportException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowReaderTest {
+
+    @Test
+    void next_ShouldReadQuotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+        String csv = "\uFEFFSku,Name,Description\r\n"
+                + "A-1,\"Cable, 2m\",\"Dice \"\"hola\"\"\"\r\n"
+                + "A-2,Monitor,\"línea 1\nlínea 2\"\n"
+                + "\n"
+                + "A-3,Ratón,\n";
+
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv), 1000)) {
+            ImportRow<Map<String, String>> first = reader.next();
+            assertEquals(2, first.line());
+            assertEquals(Map.of("sku", "A-1", "name", "Cable, 2m", "description", "Dice \"hola\""), first.value());
+
+            ImportRow<Map<String, String>> second = reader.next();
+            assertEquals(3, second.line());
+            assertEquals("línea 1\nlínea 2", second.value().get("description"));
+
+            ImportRow<Map<String, String>> third = reader.next();
+            assertEquals(6, third.line());
+            assertEquals("", third.value().get("description"));
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void next_ShouldReportRowsWithWrongColumnCountAndContinue() throws IOException {
+        String csv = "sku,name\nA-1\nA-2,Teclado";
+
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv), 1000)) {
+            ImportRow<Map<String, String>> bad = reader.next();
+            assertFalse(bad.isValid());
+            assertEquals(2, bad.line());
+
+            ImportRow<Map<String, String>> good = reader.next();
+            assertEquals("Teclado", good.value().get("name"));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void requireColumns_ShouldRejectMissingHeaderColumns() throws IOException {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader("sku,name\n"), 1000)) {
+            assertThrows(InvalidImportException.class, () -> reader.requireColumns(List.of("sku", "price")));
+        }
+    }
+
+    @Test
+    void next_ShouldStop_WhenRecordExceedsMaxLength() throws IOException {
+        // la comilla sin cerrar se traga el resto del fichero
+        String csv = "sku,name\nA-1,\"Teclado\nA-2,Ratón\nA-3,Monitor\n";
+
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv), 16)) {
+            InvalidImportException e = assertThrows(InvalidImportException.class, reader::next);
+            assertTrue(e.getMessage().contains("línea 2"));
+        }
+    }
+
+    @Test
+    void constructor_ShouldRejectEmptyFile() {
+        assertThrows(InvalidImportException.class, () -> new CsvRowReader(new StringReader(""), 1000));
+    }
+}
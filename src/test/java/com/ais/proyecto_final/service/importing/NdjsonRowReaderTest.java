@@ -0,0 +1,74 @@
+package com.ais.proyecto_final.service.importing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void next_ShouldParseEachLineAndReportBadOnesWithTheirLine() throws IOException {
+        String ndjson = "{\"sku\":\"A-1\"}\n"
+                + "null\n"
+                + "\n"
+                + "{\"sku\":\n"
+                + "{\"sku\":\"A-2\"}";
+
+        try (NdjsonRowReader<Item> reader = new NdjsonRowReader<>(new StringReader(ndjson), objectMapper, Item.class, 1000)) {
+            ImportRow<Item> first = reader.next();
+            assertEquals(1, first.line());
+            assertEquals("A-1", first.value().sku);
+
+            ImportRow<Item> literalNull = reader.next();
+            assertFalse(literalNull.isValid());
+            assertNull(literalNull.value());
+            assertEquals(2, literalNull.line());
+
+            ImportRow<Item> truncated = reader.next();
+            assertFalse(truncated.isValid());
+            assertEquals(4, truncated.line());
+
+            assertEquals("A-2", reader.next().value().sku);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void skipThrough_ShouldResumeAfterTheGivenLine() throws IOException {
+        String ndjson = "{\"sku\":\"A-1\"}\n{\"sku\":\"A-2\"}\n{\"sku\":\"A-3\"}\n";
+
+        try (NdjsonRowReader<Item> reader = new NdjsonRowReader<>(new StringReader(ndjson), objectMapper, Item.class, 1000)) {
+            reader.skipThrough(2);
+
+            ImportRow<Item> row = reader.next();
+            assertEquals(3, row.line());
+            assertEquals("A-3", row.value().sku);
+        }
+    }
+
+    @Test
+    void next_ShouldReportOversizedLineAndContinue() throws IOException {
+        String ndjson = "{\"sku\":\"" + "X".repeat(100) + "\"}\r\n{\"sku\":\"A-2\"}\r\n";
+
+        try (NdjsonRowReader<Item> reader = new NdjsonRowReader<>(new StringReader(ndjson), objectMapper, Item.class, 50)) {
+            ImportRow<Item> oversized = reader.next();
+            assertFalse(oversized.isValid());
+            assertEquals(1, oversized.line());
+
+            ImportRow<Item> next = reader.next();
+            assertEquals(2, next.line());
+            assertEquals("A-2", next.value().sku);
+            assertNull(reader.next());
+        }
+    }
+
+    static class Item {
+        public String sku;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ais.proyecto_final.service.order;
+
+import com.ais.proyecto_final.service.scheduling.SchedulerLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExpiryJobTest {
+
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private SchedulerLockManager schedulerLockManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new OrderExpiryJob(orderService, schedulerLockManager, meterRegistry, 30, 100, 3, 300);
+    }
+
+    @Test
+    void expireUnpaidOrders_ShouldSkip_WhenAnotherNodeHoldsTheLock() {
+        when(schedulerLockManager.tryLock(eq(OrderExpiryJob.LOCK_NAME), any())).thenReturn(false);
+
+        job.expireUnpaidOrders();
+
+        verifyNoInteractions(orderService);
+        verify(schedulerLockManager, never()).unlock(any());
+    }
+
+    @Test
+    void expireUnpaidOrders_ShouldProcessChunksUntilOneIsNotFull() {
+        when(schedulerLockManager.tryLock(eq(OrderExpiryJob.LOCK_NAME), any())).thenReturn(true);
+        when(orderService.expireUnpaidOrders(any(LocalDateTime.class), eq(100))).thenReturn(100, 40);
+
+        job.expireUnpaidOrders();
+
+        verify(orderService, times(2)).expireUnpaidOrders(argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusMinutes(29))), eq(100));
+        verify(schedulerLockManager).unlock(OrderExpiryJob.LOCK_NAME);
+        assertEquals(140, meterRegistry.get("orders.expiry.cancelled").counter().count());
+        assertEquals(1, meterRegistry.get("orders.expiry.run").timer().count());
+    }
+
+    @Test
+    void expireUnpaidOrders_ShouldStopAtMaxChunksPerRun() {
+        when(schedulerLockManager.tryLock(eq(OrderExpiryJob.LOCK_NAME), any())).thenReturn(true);
+        when(orderService.expireUnpaidOrders(any(LocalDateTime.class), eq(100))).thenReturn(100);
+
+        job.expireUnpaidOrders();
+
+        verify(orderService, times(3)).expireUnpaidOrders(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void expireUnpaidOrders_ShouldReleaseLock_WhenAChunkFails() {
+        when(schedulerLockManager.tryLock(eq(OrderExpiryJob.LOCK_NAME), any())).thenReturn(true);
+        when(orderService.expireUnpaidOrders(any(LocalDateTime.class), anyInt())).thenThrow(new IllegalStateException("BD caída"));
+
+        assertDoesNotThrow(() -> job.expireUnpaidOrders());
+
+        verify(schedulerLockManager).unlock(OrderExpiryJob.LOCK_NAME);
+    }
+}
@@ -1,8 +1,12 @@
 package com.ais.proyecto_final.service.order;
 
+import com.ais.proyecto_final.dto.order.BulkOrderStatusResultDTO;
+import com.ais.proyecto_final.dto.order.BulkOrderStatusUpdateDTO;
 import com.ais.proyecto_final.dto.order.LineItemRequestDTO;
+import com.ais.proyecto_final.dto.order.OrderCursorPageDTO;
 import com.ais.proyecto_final.dto.order.OrderRequestDTO;
 import com.ais.proyecto_final.dto.order.OrderResponseDTO;
+import com.ais.proyecto_final.dto.order.OrderStatusChangedEventDTO;
 import com.ais.proyecto_final.dto.order.OrderStatusUpdateDTO;
 import com.ais.proyecto_final.entity.*;
 import com.ais.proyecto_final.exceptions.OrderBusinessException;
@@ -10,8 +14,9 @@ import com.ais.proyecto_final.mappers.OrderItemMapper;
 import com.ais.proyecto_final.mappers.OrderMapper;
 import com.ais.proyecto_final.repository.AddressRepository;
 import com.ais.proyecto_final.repository.CustomerRepository;
+import com.ais.proyecto_final.repository.OrderItemRepository;
 import com.ais.proyecto_final.repository.OrderRepository;
-import com.ais.proyecto_final.repository.ProductRepository;
+import com.ais.proyecto_final.service.outbox.OutboxService;
 import com.ais.proyecto_final.service.product.ProductService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,12 +31,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,7 +54,7 @@ class OrderServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
     @Mock
-    private ProductRepository productRepository;
+    private OrderItemRepository orderItemRepository;
     @Mock
     private CustomerRepository customerRepository;
     @Mock
@@ -57,6 +66,8 @@ class OrderServiceImplTest {
 
     @Mock
     private ProductService productService;
+    @Mock
+    private OutboxService outboxService;
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -85,7 +96,7 @@ class OrderServiceImplTest {
 
         when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(addressRepository.findById(2L)).thenReturn(Optional.of(testAddress));
-        when(productRepository.findById(10L)).thenReturn(Optional.of(testProduct));
+        when(productService.reserveStock(anyMap())).thenReturn(Map.of(10L, testProduct));
         when(orderMapper.toEntity(any(OrderRequestDTO.class))).thenReturn(Order.builder().items(new ArrayList<>()).build());
         when(orderItemMapper.toEntity(any())).thenReturn(OrderItem.builder().build());
 
@@ -104,7 +115,6 @@ class OrderServiceImplTest {
         when(orderRepository.save(any(Order.class))).thenReturn(persistedOrder);
 
         when(orderMapper.toResponseDto(any(Order.class))).thenReturn(OrderResponseDTO.builder().id(1L).total(new BigDecimal("1000.00")).status(OrderStatus.PAID).build());
-        doNothing().when(productService).reduceStock(10L, 1);
 
         OrderResponseDTO result = orderService.createOrder(validRequest);
 
@@ -112,7 +122,27 @@ class OrderServiceImplTest {
         assertEquals(1L, result.getId());
 
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(productService, times(1)).reduceStock(10L, 1);
+        verify(productService, times(1)).reserveStock(Map.of(10L, 1));
+        verify(productService, never()).reduceStock(anyLong(), anyInt());
+        verify(outboxService).record(OutboxService.ORDER_AGGREGATE, 1L, OutboxService.ORDER_CREATED, result);
+    }
+
+    @Test
+    void createOrder_ShouldReserveAggregatedQuantities_WhenProductIsRepeated() {
+        OrderRequestDTO request = OrderRequestDTO.builder()
+                .customerId(1L)
+                .shippingAddressId(2L)
+                .items(List.of(
+                        LineItemRequestDTO.builder().productId(10L).quantity(1).build(),
+                        LineItemRequestDTO.builder().productId(10L).quantity(2).build()
+                ))
+                .build();
+
+        orderService.createOrder(request);
+
+        verify(productService, times(1)).reserveStock(Map.of(10L, 3));
+        verify(orderRepository).save(argThat(order ->
+                order.getItems().size() == 2 && order.getTotal().compareTo(new BigDecimal("3000.00")) == 0));
     }
 
     @Test
@@ -134,23 +164,22 @@ class OrderServiceImplTest {
 
     @Test
     void createOrder_ShouldThrowException_ProductNotFound() {
-        when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(productService.reserveStock(anyMap())).thenThrow(new EntityNotFoundException("Producto 10 no encontrado."));
 
         assertThrows(EntityNotFoundException.class, () -> orderService.createOrder(validRequest));
+        verify(orderRepository, never()).save(any());
     }
 
     @Test
     void createOrder_ShouldThrowException_ProductInactive() {
-        doThrow(new OrderBusinessException("El producto no está activo."))
-                .when(productService).reduceStock(10L, 1);
+        when(productService.reserveStock(anyMap())).thenThrow(new OrderBusinessException("El producto no está activo."));
 
         assertThrows(OrderBusinessException.class, () -> orderService.createOrder(validRequest));
     }
 
     @Test
     void createOrder_ShouldThrowException_InsufficientStock() {
-        doThrow(new OrderBusinessException("Stock insuficiente"))
-                .when(productService).reduceStock(10L, 1);
+        when(productService.reserveStock(anyMap())).thenThrow(new OrderBusinessException("Stock insuficiente"));
 
         assertThrows(OrderBusinessException.class, () -> orderService.createOrder(validRequest));
     }
@@ -170,6 +199,111 @@ class OrderServiceImplTest {
 
         assertEquals(OrderStatus.PAID, result.getStatus());
         verify(orderRepository, times(1)).save(existingOrder);
+        verify(outboxService).record(eq(OutboxService.ORDER_AGGREGATE), eq(1L), eq(OutboxService.ORDER_STATUS_CHANGED),
+                argThat(payload -> payload instanceof OrderStatusChangedEventDTO event
+                        && event.getPreviousStatus() == OrderStatus.CREATED
+                        && event.getStatus() == OrderStatus.PAID));
+    }
+
+    @Test
+    void bulkUpdateOrderStatus_ShouldApplyValidTransitionsAndReportEachId() {
+        Order paid = Order.builder().id(1L).status(OrderStatus.PAID).build();
+        Order created = Order.builder().id(2L).status(OrderStatus.CREATED).build();
+        Order shipped = Order.builder().id(3L).status(OrderStatus.SHIPPED).build();
+        when(orderRepository.lockAllByIdIn(any())).thenReturn(List.of(paid, created, shipped));
+        BulkOrderStatusUpdateDTO dto = BulkOrderStatusUpdateDTO.builder()
+                .orderIds(List.of(1L, 2L, 3L, 4L, 1L))
+                .status(OrderStatus.SHIPPED)
+                .build();
+
+        BulkOrderStatusResultDTO result = orderService.bulkUpdateOrderStatus(dto);
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(
+                        BulkOrderStatusResultDTO.Outcome.UPDATED,
+                        BulkOrderStatusResultDTO.Outcome.INVALID_TRANSITION,
+                        BulkOrderStatusResultDTO.Outcome.UNCHANGED,
+                        BulkOrderStatusResultDTO.Outcome.NOT_FOUND),
+                result.getResults().stream().map(BulkOrderStatusResultDTO.Item::getOutcome).toList());
+        verify(orderRepository).updateStatus(List.of(1L), OrderStatus.SHIPPED);
+        verify(outboxService, times(1)).record(eq(OutboxService.ORDER_AGGREGATE), eq(1L), eq(OutboxService.ORDER_STATUS_CHANGED), any());
+        verifyNoInteractions(productService, orderItemRepository);
+    }
+
+    @Test
+    void bulkUpdateOrderStatus_ShouldReturnStockAggregatedByProduct_OnCancellation() {
+        when(orderRepository.lockAllByIdIn(any())).thenReturn(List.of(
+                Order.builder().id(1L).status(OrderStatus.CREATED).build(),
+                Order.builder().id(2L).status(OrderStatus.PAID).build()));
+        OrderItemRepository.ProductQuantity line = mock(OrderItemRepository.ProductQuantity.class);
+        when(line.getProductId()).thenReturn(10L);
+        when(line.getQuantity()).thenReturn(7L);
+        when(orderItemRepository.sumQuantityByProductForOrders(List.of(1L, 2L))).thenReturn(List.of(line));
+
+        BulkOrderStatusResultDTO result = orderService.bulkUpdateOrderStatus(BulkOrderStatusUpdateDTO.builder()
+                .orderIds(List.of(1L, 2L))
+                .status(OrderStatus.CANCELLED)
+                .build());
+
+        assertEquals(2, result.getUpdated());
+        verify(productService).returnStockBatch(Map.of(10L, 7));
+        verify(orderRepository).updateStatus(List.of(1L, 2L), OrderStatus.CANCELLED);
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void bulkUpdateOrderStatus_ShouldNotUpdate_WhenNoTransitionIsValid() {
+        when(orderRepository.lockAllByIdIn(any())).thenReturn(List.of(Order.builder().id(1L).status(OrderStatus.SHIPPED).build()));
+
+        BulkOrderStatusResultDTO result = orderService.bulkUpdateOrderStatus(BulkOrderStatusUpdateDTO.builder()
+                .orderIds(List.of(1L))
+                .status(OrderStatus.CANCELLED)
+                .build());
+
+        assertEquals(0, result.getUpdated());
+        verify(orderRepository, never()).updateStatus(any(), any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void expireUnpaidOrders_ShouldCancelOnlyOrdersStillCreatedUnderLock() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30);
+        Order stillCreated = Order.builder().id(1L).status(OrderStatus.CREATED).orderDate(cutoff.minusHours(1)).build();
+        Order paidMeanwhile = Order.builder().id(2L).status(OrderStatus.PAID).orderDate(cutoff.minusHours(1)).build();
+        when(orderRepository.findIdsByStatusAndOrderDateBefore(eq(OrderStatus.CREATED), eq(cutoff), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(orderRepository.lockAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(stillCreated, paidMeanwhile));
+        when(orderItemRepository.sumQuantityByProductForOrders(List.of(1L))).thenReturn(List.of());
+
+        int cancelled = orderService.expireUnpaidOrders(cutoff, 50);
+
+        assertEquals(1, cancelled);
+        verify(orderRepository).updateStatus(List.of(1L), OrderStatus.CANCELLED);
+        verify(productService).returnStockBatch(Map.of());
+        verify(outboxService, times(1)).record(eq(OutboxService.ORDER_AGGREGATE), eq(1L), eq(OutboxService.ORDER_STATUS_CHANGED), any());
+    }
+
+    @Test
+    void expireUnpaidOrders_ShouldDoNothing_WhenNoOrderHasExpired() {
+        when(orderRepository.findIdsByStatusAndOrderDateBefore(any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, orderService.expireUnpaidOrders(LocalDateTime.now(), 50));
+
+        verify(orderRepository, never()).lockAllByIdIn(any());
+        verify(orderRepository, never()).updateStatus(any(), any());
+    }
+
+    @Test
+    void updateOrderStatus_ShouldNotRecordEvent_WhenStatusIsUnchanged() {
+        Order existingOrder = Order.builder().id(1L).status(OrderStatus.PAID).items(Collections.emptyList()).build();
+        OrderStatusUpdateDTO dto = OrderStatusUpdateDTO.builder().status(OrderStatus.PAID).build();
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
+
+        orderService.updateOrderStatus(1L, dto);
+
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -183,11 +317,27 @@ class OrderServiceImplTest {
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
         when(orderMapper.toResponseDto(any(Order.class))).thenReturn(OrderResponseDTO.builder().status(OrderStatus.CANCELLED).build());
 
-        doNothing().when(productService).returnStock(testProduct.getId(), 2);
-
         orderService.updateOrderStatus(1L, dto);
 
-        verify(productService, times(1)).returnStock(testProduct.getId(), 2);
+        verify(productService, times(1)).returnStockBatch(Map.of(testProduct.getId(), 2));
+        verify(productService, never()).returnStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void updateOrderStatus_ShouldReturnStockAggregatedPerProduct_OnCancellation() {
+        Product other = Product.builder().id(11L).build();
+        List<OrderItem> items = List.of(
+                OrderItem.builder().quantity(2).product(testProduct).build(),
+                OrderItem.builder().quantity(1).product(other).build(),
+                OrderItem.builder().quantity(3).product(testProduct).build());
+        Order existingOrder = Order.builder().id(1L).status(OrderStatus.PAID).items(new ArrayList<>(items)).build();
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
+
+        orderService.updateOrderStatus(1L, OrderStatusUpdateDTO.builder().status(OrderStatus.CANCELLED).build());
+
+        verify(productService, times(1)).returnStockBatch(Map.of(testProduct.getId(), 5, 11L, 1));
     }
 
     @Test
@@ -199,6 +349,7 @@ class OrderServiceImplTest {
 
         assertThrows(OrderBusinessException.class, () -> orderService.updateOrderStatus(1L, dto));
         verify(orderRepository, never()).save(any());
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -215,7 +366,7 @@ class OrderServiceImplTest {
         Order mockOrder = Order.builder().id(1L).status(OrderStatus.PAID).build();
         when(orderMapper.toResponseDto(any(Order.class))).thenReturn(OrderResponseDTO.builder().id(1L).status(OrderStatus.PAID).build());
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(mockOrder));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(mockOrder));
 
         OrderResponseDTO result = orderService.getOrderById(1L);
 
@@ -226,7 +377,7 @@ class OrderServiceImplTest {
 
     @Test
     void getOrderById_ShouldThrowException_NotFound() {
-        when(orderRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> orderService.getOrderById(99L));
     }
@@ -248,6 +399,62 @@ class OrderServiceImplTest {
         assertEquals(1L, result.getContent().get(0).getId());
     }
 
+    @Test
+    void findAllOrders_ShouldFetchItemsOfWholePageInOneQuery() {
+        Order first = Order.builder().id(1L).build();
+        Order second = Order.builder().id(2L).build();
+        Order secondWithItems = Order.builder().id(2L).items(new ArrayList<>(List.of(new OrderItem()))).build();
+        when(orderRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(first, second), PageRequest.of(0, 2), 2));
+        when(orderRepository.findWithItemsByIdIn(List.of(1L, 2L))).thenReturn(List.of(secondWithItems));
+        when(orderMapper.toResponseDto(any(Order.class))).thenReturn(OrderResponseDTO.builder().build());
+
+        orderService.findAllOrders(null, null, null, null, PageRequest.of(0, 2));
+
+        verify(orderRepository, times(1)).findWithItemsByIdIn(List.of(1L, 2L));
+        verify(orderMapper).toResponseDto(first);
+        verify(orderMapper).toResponseDto(same(secondWithItems));
+    }
+
+    @Test
+    void scrollOrders_ShouldReturnCursorOfLastOrder_WhenMoreRemain() {
+        LocalDateTime date = LocalDateTime.of(2025, 9, 15, 10, 12, 30);
+        List<Order> orders = List.of(Order.builder().id(5L).orderDate(date).build(), Order.builder().id(4L).orderDate(date).build());
+        when(orderRepository.scrollOrders(any(Specification.class), eq(ScrollPosition.keyset()), eq(2)))
+                .thenReturn(Window.from(orders, ScrollPosition::offset, true));
+        when(orderMapper.toResponseDto(any(Order.class))).thenReturn(OrderResponseDTO.builder().build());
+
+        OrderCursorPageDTO page = orderService.scrollOrders(null, null, null, null, null, 2);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertNotNull(page.getNextCursor());
+
+        when(orderRepository.scrollOrders(any(Specification.class), any(ScrollPosition.class), eq(2)))
+                .thenReturn(Window.from(List.of(), ScrollPosition::offset, false));
+        OrderCursorPageDTO next = orderService.scrollOrders(null, null, null, null, page.getNextCursor(), 2);
+
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+        verify(orderRepository).scrollOrders(any(Specification.class),
+                eq(ScrollPosition.forward(Map.of("orderDate", date, "id", 4L))), eq(2));
+    }
+
+    @Test
+    void scrollOrders_ShouldThrow_WhenCursorIsInvalid() {
+        assertThrows(OrderBusinessException.class,
+                () -> orderService.scrollOrders(null, null, null, null, "no-es-un-cursor", 20));
+        verify(orderRepository, never()).scrollOrders(any(), any(), anyInt());
+    }
+
+    @Test
+    void scrollOrders_ShouldThrow_WhenSizeOutOfRange() {
+        assertThrows(OrderBusinessException.class,
+                () -> orderService.scrollOrders(null, null, null, null, null, 0));
+        assertThrows(OrderBusinessException.class,
+                () -> orderService.scrollOrders(null, null, null, null, null, 101));
+    }
+
 
     @Test
     void updateOrderStatus_ShouldFail_OnInvalidTransition_FromFinalState() {
@@ -301,12 +508,9 @@ class OrderServiceImplTest {
         when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
-        doNothing().when(productService).returnStock(mockProduct.getId(), 2);
-
-
         orderService.updateOrderStatus(1L, newStatusDto);
 
-        verify(productService, times(1)).returnStock(mockProduct.getId(), 2);
+        verify(productService, times(1)).returnStockBatch(Map.of(mockProduct.getId(), 2));
         verify(orderRepository, times(1)).save(existingOrder);
     }
 }
\ No newline at end of file
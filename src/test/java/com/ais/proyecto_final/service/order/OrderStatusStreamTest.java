@@ -0,0 +1,292 @@
+package com.ais.proyecto_final.service.order;
+
+import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.entity.OutboxEvent;
+import com.ais.proyecto_final.repository.OutboxEventRepository;
+import com.ais.proyecto_final.service.outbox.OutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderStatusStreamTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private OrderStatusStream stream;
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void publish_ShouldDeliverStatusChangesMatchingTheFilter() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        RecordingSender all = new RecordingSender(2);
+        RecordingSender paidOnly = new RecordingSender(1);
+        stream.subscribe(null, null, all);
+        stream.subscribe(null, OrderStatus.PAID, paidOnly);
+
+        stream.append(List.of(
+                event(1, OrderStatus.PAID),
+                event(2, OrderStatus.SHIPPED),
+                OutboxEvent.builder().id(3L).eventType(OutboxService.ORDER_CREATED).payload("{}").build()));
+
+        assertTrue(all.await());
+        assertTrue(paidOnly.await());
+        assertEquals(List.of(1L, 2L), all.ids());
+        assertEquals(List.of(1L), paidOnly.ids());
+    }
+
+    @Test
+    void subscribe_ShouldReplayEventsAfterLastEventId() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        stream.append(List.of(event(1, OrderStatus.PAID), event(2, OrderStatus.PAID), event(3, OrderStatus.CANCELLED)));
+
+        RecordingSender resumed = new RecordingSender(2);
+        stream.subscribe(sseId(1), null, resumed);
+
+        assertTrue(resumed.await());
+        assertEquals(List.of(2L, 3L), resumed.ids());
+    }
+
+    @Test
+    void append_ShouldNumberEventsInArrivalOrder_NotByOutboxId() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        // ids de bloques de secuencia de dos nodos: el 60 confirma antes que el 3
+        stream.append(List.of(event(60, OrderStatus.PAID)));
+        stream.append(List.of(event(3, OrderStatus.SHIPPED)));
+
+        RecordingSender resumed = new RecordingSender(1);
+        stream.subscribe(sseId(1), null, resumed);
+
+        assertTrue(resumed.await());
+        assertEquals(List.of(2L), resumed.ids());
+        assertEquals(List.of(3L), resumed.outboxIds());
+    }
+
+    @Test
+    void subscribe_ShouldSendReset_WhenLastEventIdIsNoLongerInHistory() throws Exception {
+        stream = newStream(10, 2, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        stream.append(List.of(event(1, OrderStatus.PAID), event(2, OrderStatus.PAID), event(3, OrderStatus.PAID)));
+
+        RecordingSender resumed = new RecordingSender(0);
+        stream.subscribe(sseId(0), null, resumed);
+
+        assertTrue(resumed.resetLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(resumed.ids().isEmpty());
+    }
+
+    @Test
+    void subscribe_ShouldSendReset_WhenLastEventIdComesFromAnotherInstance() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        stream.append(List.of(event(1, OrderStatus.PAID)));
+
+        RecordingSender resumed = new RecordingSender(0);
+        stream.subscribe("otro-nodo-1", null, resumed);
+
+        assertTrue(resumed.resetLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(resumed.ids().isEmpty());
+    }
+
+    @Test
+    void poll_ShouldDeliverCommittedEventsOnce_AcrossOverlappingReads() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        RecordingSender sender = new RecordingSender(2);
+        stream.subscribe(null, null, sender);
+        when(outboxEventRepository.findCreatedAfter(eq(OutboxService.ORDER_STATUS_CHANGED), any()))
+                .thenReturn(List.of(event(7, OrderStatus.PAID)))
+                .thenReturn(List.of(event(7, OrderStatus.PAID), event(2, OrderStatus.SHIPPED)));
+
+        stream.poll();
+        stream.poll();
+
+        assertTrue(sender.await());
+        assertEquals(List.of(7L, 2L), sender.outboxIds());
+    }
+
+    @Test
+    void poll_ShouldSendReset_WhenAnEventCommitsAfterTheReadWindow() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        RecordingSender sender = new RecordingSender(1);
+        stream.subscribe(null, null, sender);
+        when(outboxEventRepository.findCreatedAfter(eq(OutboxService.ORDER_STATUS_CHANGED), any()))
+                .thenReturn(List.of(event(7, OrderStatus.PAID)))
+                .thenReturn(List.of());
+        // el 5 ya quedó por detrás de la ventana de lectura cuando por fin se confirmó
+        when(outboxEventRepository.findIdsCreatedBetween(eq(OutboxService.ORDER_STATUS_CHANGED), any(), any()))
+                .thenReturn(List.of(7L, 5L));
+
+        stream.poll();
+        assertTrue(sender.await());
+        stream.poll();
+
+        assertTrue(sender.resetLatch.await(5, TimeUnit.SECONDS));
+        RecordingSender resumed = new RecordingSender(0);
+        stream.subscribe(sseId(1), null, resumed);
+        assertTrue(resumed.resetLatch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void checkGaps_ShouldNotReset_WhenEveryEventWasDelivered() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        stream.append(List.of(event(1, OrderStatus.PAID), event(2, OrderStatus.SHIPPED)));
+        RecordingSender sender = new RecordingSender(1);
+        stream.subscribe(null, null, sender);
+
+        stream.checkGaps(List.of(1L, 2L), LocalDateTime.now());
+        stream.append(List.of(event(3, OrderStatus.PAID)));
+
+        assertTrue(sender.await());
+        assertEquals(1, sender.resetLatch.getCount());
+        RecordingSender resumed = new RecordingSender(1);
+        stream.subscribe(sseId(2), null, resumed);
+        assertTrue(resumed.await());
+        assertEquals(List.of(3L), resumed.outboxIds());
+    }
+
+    @Test
+    void publish_ShouldIgnoreEventsAlreadyDelivered() throws Exception {
+        stream = newStream(10, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        RecordingSender sender = new RecordingSender(2);
+        stream.subscribe(null, null, sender);
+
+        stream.append(List.of(event(1, OrderStatus.PAID)));
+        stream.append(List.of(event(1, OrderStatus.PAID), event(2, OrderStatus.SHIPPED)));
+
+        assertTrue(sender.await());
+        assertEquals(List.of(1L, 2L), sender.ids());
+    }
+
+    @Test
+    void publish_ShouldDropOldestEvents_ForSlowSubscriber() throws Exception {
+        stream = newStream(2, 100, OrderStatusStream.OverflowPolicy.DROP_OLDEST);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingSender slow = new RecordingSender(3) {
+            @Override
+            public void send(OrderStatusStream.StreamEvent event) throws IOException {
+                awaitQuietly(unblock);
+                super.send(event);
+            }
+        };
+        stream.subscribe(null, null, slow);
+
+        stream.append(List.of(event(1, OrderStatus.PAID)));
+        // el hilo de envío se queda bloqueado con el evento 1; la cola (2) recibe 2..5 y conserva los dos últimos
+        Thread.sleep(100);
+        stream.append(List.of(event(2, OrderStatus.PAID), event(3, OrderStatus.PAID), event(4, OrderStatus.PAID), event(5, OrderStatus.PAID)));
+        unblock.countDown();
+
+        assertTrue(slow.await());
+        assertEquals(List.of(1L, 4L, 5L), slow.ids());
+    }
+
+    @Test
+    void publish_ShouldDisconnectSlowSubscriber_WithDisconnectPolicy() throws Exception {
+        stream = newStream(1, 100, OrderStatusStream.OverflowPolicy.DISCONNECT);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingSender slow = new RecordingSender(1) {
+            @Override
+            public void send(OrderStatusStream.StreamEvent event) throws IOException {
+                awaitQuietly(unblock);
+                super.send(event);
+            }
+        };
+        stream.subscribe(null, null, slow);
+
+        stream.append(List.of(event(1, OrderStatus.PAID)));
+        Thread.sleep(100);
+        stream.append(List.of(event(2, OrderStatus.PAID), event(3, OrderStatus.PAID)));
+
+        assertTrue(slow.completedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, stream.subscriberCount());
+        unblock.countDown();
+    }
+
+    private OrderStatusStream newStream(int bufferSize, int replaySize, OrderStatusStream.OverflowPolicy policy) {
+        return new OrderStatusStream(outboxEventRepository, objectMapper, new SimpleMeterRegistry(), 10000, 300000,
+                bufferSize, replaySize, policy, 60000, 1);
+    }
+
+    private String sseId(long sequence) {
+        return stream.sseId(new OrderStatusStream.StreamEvent(sequence, 0, null, null));
+    }
+
+    private OutboxEvent event(long id, OrderStatus status) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(OutboxService.ORDER_AGGREGATE)
+                .aggregateId(100 + id)
+                .eventType(OutboxService.ORDER_STATUS_CHANGED)
+                .payload("{\"orderId\":" + (100 + id) + ",\"status\":\"" + status + "\"}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingSender implements OrderStatusStream.EventSender {
+        private final List<Long> received = new CopyOnWriteArrayList<>();
+        private final List<Long> receivedOutboxIds = new CopyOnWriteArrayList<>();
+        private final CountDownLatch eventsLatch;
+        private final CountDownLatch resetLatch = new CountDownLatch(1);
+        private final CountDownLatch completedLatch = new CountDownLatch(1);
+
+        RecordingSender(int expectedEvents) {
+            this.eventsLatch = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void send(OrderStatusStream.StreamEvent event) throws IOException {
+            received.add(event.id());
+            receivedOutboxIds.add(event.outboxId());
+            eventsLatch.countDown();
+        }
+
+        @Override
+        public void reset() {
+            resetLatch.countDown();
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void complete() {
+            completedLatch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return eventsLatch.await(5, TimeUnit.SECONDS);
+        }
+
+        List<Long> ids() {
+            return received;
+        }
+
+        List<Long> outboxIds() {
+            return receivedOutboxIds;
+        }
+    }
+}
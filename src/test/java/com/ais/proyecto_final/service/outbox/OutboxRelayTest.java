@@ -0,0 +1,123 @@
+package com.ais.proyecto_final.service.outbox;
+
+import com.ais.proyecto_final.dto.outbox.OutboxEventDTO;
+import com.ais.proyecto_final.entity.OutboxEvent;
+import com.ais.proyecto_final.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private OutboxSink sink;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        relay = new OutboxRelay(outboxEventRepository, transactionTemplate, List.of(sink), 2, 72);
+    }
+
+    @Test
+    void relay_ShouldPublishAndMarkBatches_UntilBatchIsNotFull() {
+        List<OutboxEvent> first = events(1, 2);
+        List<OutboxEvent> second = events(3, 3);
+        when(outboxEventRepository.lockUnpublished(any(Pageable.class))).thenReturn(first, second, List.of());
+
+        relay.relay();
+
+        verify(sink, times(2)).publish(anyList());
+        verify(outboxEventRepository, times(2)).lockUnpublished(any(Pageable.class));
+        assertTrue(first.stream().allMatch(e -> e.getPublishedAt() != null));
+        assertTrue(second.stream().allMatch(e -> e.getPublishedAt() != null));
+    }
+
+    @Test
+    void relay_ShouldLeaveEventsUnpublished_WhenSinkFails() {
+        List<OutboxEvent> batch = events(1, 2);
+        when(outboxEventRepository.lockUnpublished(any(Pageable.class))).thenReturn(batch);
+        doThrow(new IllegalStateException("sink caído")).when(sink).publish(anyList());
+
+        assertDoesNotThrow(() -> relay.relay());
+
+        assertTrue(batch.stream().allMatch(e -> e.getPublishedAt() == null));
+    }
+
+    @Test
+    void relay_ShouldPassEventFieldsToSinks() {
+        when(outboxEventRepository.lockUnpublished(any(Pageable.class))).thenReturn(events(7, 7));
+
+        relay.relay();
+
+        verify(sink).publish(argThat((List<OutboxEventDTO> events) -> events.size() == 1
+                && events.get(0).getId() == 7L
+                && OutboxService.ORDER_STATUS_CHANGED.equals(events.get(0).getEventType())
+                && "{\"orderId\":7}".equals(events.get(0).getPayload())));
+    }
+
+    @Test
+    void relay_ShouldDoNothing_WithoutSinks() {
+        OutboxRelay withoutSinks = new OutboxRelay(outboxEventRepository, transactionTemplate, List.of(), 2, 72);
+
+        withoutSinks.relay();
+
+        verifyNoInteractions(outboxEventRepository);
+    }
+
+    @Test
+    void purge_ShouldOnlyDeletePublishedEvents_WhenSinksAreConfigured() {
+        when(outboxEventRepository.deletePublishedBefore(any(LocalDateTime.class))).thenReturn(3);
+
+        relay.purge();
+
+        verify(outboxEventRepository).deletePublishedBefore(any(LocalDateTime.class));
+        verify(outboxEventRepository, never()).deleteCreatedBefore(any(LocalDateTime.class));
+    }
+
+    @Test
+    void purge_ShouldDeleteOldUnpublishedEvents_WithoutSinks() {
+        OutboxRelay withoutSinks = new OutboxRelay(outboxEventRepository, transactionTemplate, List.of(), 2, 72);
+        when(outboxEventRepository.deleteCreatedBefore(any(LocalDateTime.class))).thenReturn(5);
+
+        withoutSinks.purge();
+
+        verify(outboxEventRepository).deleteCreatedBefore(argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusHours(71))));
+        verify(outboxEventRepository, never()).deletePublishedBefore(any(LocalDateTime.class));
+    }
+
+    private List<OutboxEvent> events(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> OutboxEvent.builder()
+                        .id(id)
+                        .aggregateType(OutboxService.ORDER_AGGREGATE)
+                        .aggregateId(id)
+                        .eventType(OutboxService.ORDER_STATUS_CHANGED)
+                        .payload("{\"orderId\":" + id + "}")
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.ais.proyecto_final.service.outbox;
+
+import com.ais.proyecto_final.dto.order.OrderStatusChangedEventDTO;
+import com.ais.proyecto_final.entity.OrderStatus;
+import com.ais.proyecto_final.entity.OutboxEvent;
+import com.ais.proyecto_final.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void record_ShouldStoreSerializedPayload() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        OutboxServiceImpl outboxService = new OutboxServiceImpl(outboxEventRepository, objectMapper);
+        OrderStatusChangedEventDTO payload = OrderStatusChangedEventDTO.builder()
+                .orderId(10L)
+                .previousStatus(OrderStatus.CREATED)
+                .status(OrderStatus.PAID)
+                .build();
+
+        outboxService.record(OutboxService.ORDER_AGGREGATE, 10L, OutboxService.ORDER_STATUS_CHANGED, payload);
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent saved = captor.getValue();
+        assertEquals(10L, saved.getAggregateId());
+        assertEquals(OutboxService.ORDER_STATUS_CHANGED, saved.getEventType());
+        assertEquals(payload, objectMapper.readValue(saved.getPayload(), OrderStatusChangedEventDTO.class));
+    }
+}
@@ -0,0 +1,192 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.entity.Product;
+import com.ais.proyecto_final.repository.OrderItemRepository;
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HotStockLedgerTest {
+
+    private static final Long HOT_ID = 1L;
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    private HotStockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        Product hot = Product.builder().id(HOT_ID).name("Oferta").price(BigDecimal.ONE).stock(100).active(true).build();
+        when(productRepository.findById(HOT_ID)).thenReturn(Optional.of(hot));
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+
+        ledger = new HotStockLedger(productRepository, orderItemRepository, transactionTemplate, productCatalogCache, List.of(HOT_ID), 2);
+    }
+
+    @Test
+    void isHot_ShouldOnlyMatchConfiguredProducts() {
+        assertTrue(ledger.isHot(HOT_ID));
+        assertFalse(ledger.isHot(2L));
+    }
+
+    @Test
+    void reserve_ShouldSeedFromStockMinusPendingAndRejectWhenExhausted() {
+        when(orderItemRepository.sumPendingStockQuantity(HOT_ID)).thenReturn(90L);
+
+        assertTrue(ledger.reserve(HOT_ID, 6));
+        assertFalse(ledger.reserve(HOT_ID, 5));
+        assertTrue(ledger.reserve(HOT_ID, 4));
+        assertFalse(ledger.reserve(HOT_ID, 1));
+        verify(productRepository, times(1)).findById(HOT_ID);
+    }
+
+    @Test
+    void release_ShouldReturnUnitsToCounter() {
+        assertTrue(ledger.reserve(HOT_ID, 100));
+        assertFalse(ledger.reserve(HOT_ID, 1));
+
+        ledger.release(HOT_ID, 3);
+
+        assertTrue(ledger.reserve(HOT_ID, 3));
+        assertFalse(ledger.reserve(HOT_ID, 1));
+    }
+
+    @Test
+    void reseed_ShouldReseedFromDatabase() {
+        assertTrue(ledger.reserve(HOT_ID, 100));
+
+        ledger.reseed(HOT_ID);
+
+        assertTrue(ledger.reserve(HOT_ID, 100));
+        verify(productRepository, times(2)).findById(HOT_ID);
+    }
+
+    @Test
+    void reseed_ShouldSubtractReservationsStillInFlight() {
+        List<TransactionSynchronization> orderTransaction;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(ledger.reserve(HOT_ID, 30));
+            orderTransaction = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // se edita el stock a 50 mientras el pedido de 30 sigue sin confirmar
+        when(productRepository.findById(HOT_ID)).thenReturn(Optional.of(
+                Product.builder().id(HOT_ID).name("Oferta").price(BigDecimal.ONE).stock(50).active(true).build()));
+        ledger.reseed(HOT_ID);
+
+        assertFalse(ledger.reserve(HOT_ID, 21));
+        assertTrue(ledger.reserve(HOT_ID, 20));
+
+        // el pedido se deshace: sus unidades vuelven al contador ya resembrado
+        orderTransaction.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertTrue(ledger.reserve(HOT_ID, 30));
+        assertFalse(ledger.reserve(HOT_ID, 1));
+    }
+
+    @Test
+    void reseed_ShouldWaitForCommit_WhenCalledInsideTransaction() {
+        assertTrue(ledger.reserve(HOT_ID, 100));
+        List<TransactionSynchronization> editTransaction;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.reseed(HOT_ID);
+            editTransaction = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertFalse(ledger.reserve(HOT_ID, 1));
+
+        editTransaction.forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(ledger.reserve(HOT_ID, 100));
+    }
+
+    @Test
+    void reserve_ShouldNeverOversell_UnderContention() throws InterruptedException {
+        int threads = 16;
+        int attemptsPerThread = 50;
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (ledger.reserve(HOT_ID, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, reserved.get());
+    }
+
+    @Test
+    void flush_ShouldSettlePendingItemsInBatches() {
+        when(orderItemRepository.findPendingStockItemIds(eq(HOT_ID), any(Pageable.class)))
+                .thenReturn(List.of(10L, 11L), List.of(12L), List.of());
+        when(orderItemRepository.markStockSettled(anyCollection())).thenAnswer(inv -> ((java.util.Collection<?>) inv.getArgument(0)).size());
+        when(orderItemRepository.sumQuantityByIdIn(List.of(10L, 11L))).thenReturn(5L);
+        when(orderItemRepository.sumQuantityByIdIn(List.of(12L))).thenReturn(2L);
+
+        ledger.flush();
+
+        verify(productRepository).subtractStock(HOT_ID, 5);
+        verify(productRepository).subtractStock(HOT_ID, 2);
+        verify(productCatalogCache, times(2)).evict(HOT_ID);
+        verify(orderItemRepository, times(2)).findPendingStockItemIds(eq(HOT_ID), any(Pageable.class));
+    }
+
+    @Test
+    void flush_ShouldNotSubtract_WhenAnotherNodeSettledTheSameItems() {
+        List<Long> pending = new ArrayList<>(List.of(10L, 11L));
+        when(orderItemRepository.findPendingStockItemIds(eq(HOT_ID), any(Pageable.class))).thenReturn(pending);
+        when(orderItemRepository.markStockSettled(pending)).thenReturn(1);
+
+        ledger.flush();
+
+        verify(productRepository, never()).subtractStock(anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,139 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.product.ProductSuggestionDTO;
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductAutocompleteTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ProductAutocomplete autocomplete;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        autocomplete = new ProductAutocomplete(productRepository, transactionTemplate);
+    }
+
+    @Test
+    void suggest_ShouldReturnNothing_UntilRebuilt() {
+        assertTrue(autocomplete.suggest("tec", 5).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldMatchNameWordsAndSku() {
+        rebuildWith(row(1L, "TEC-01", "Teclado mecánico"), row(2L, "RAT-01", "Ratón inalámbrico"));
+
+        assertEquals(List.of(1L), ids(autocomplete.suggest("Tecla", 5)));
+        assertEquals(List.of(1L), ids(autocomplete.suggest("mec", 5)));
+        assertEquals(List.of(2L), ids(autocomplete.suggest("rat-0", 5)));
+        assertTrue(autocomplete.suggest("clado", 5).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldIgnoreAccents() {
+        rebuildWith(row(1L, "TEC-01", "Teclado Mecánico"), row(2L, "RAT-01", "Ratón"));
+
+        assertEquals(List.of(1L), ids(autocomplete.suggest("mecan", 5)));
+        assertEquals(List.of(2L), ids(autocomplete.suggest("RATÓ", 5)));
+        assertEquals("Ratón", autocomplete.suggest("raton", 5).get(0).getName());
+    }
+
+    @Test
+    void suggest_ShouldRankShortestCompletionFirstAndRespectLimit() {
+        rebuildWith(row(1L, "A1", "Cable USB-C largo"), row(2L, "A2", "Cable"), row(3L, "A3", "Cable HDMI"));
+
+        List<ProductSuggestionDTO> suggestions = autocomplete.suggest("cab", 2);
+
+        assertEquals(List.of(2L, 3L), ids(suggestions));
+        assertEquals("Cable", suggestions.get(0).getName());
+    }
+
+    @Test
+    void onProductChanged_ShouldRenameAndRemoveProducts() {
+        rebuildWith(row(1L, "TEC-01", "Teclado"));
+
+        autocomplete.onProductChanged(new ProductChangedEvent(1L, "TEC-01", "Monitor", true));
+        assertTrue(autocomplete.suggest("tec", 5).stream().allMatch(s -> s.getName().equals("Monitor")));
+        assertEquals(List.of(1L), ids(autocomplete.suggest("mon", 5)));
+
+        autocomplete.onProductChanged(new ProductChangedEvent(1L, "TEC-01", "Monitor", false));
+        assertTrue(autocomplete.suggest("mon", 5).isEmpty());
+        assertTrue(autocomplete.suggest("tec", 5).isEmpty());
+    }
+
+    @Test
+    void trie_ShouldSplitAndMergeEdges() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.insert("teclado", 1L);
+        int afterFirst = trie.nodeCount();
+
+        trie.insert("tecla", 2L);
+        trie.insert("tele", 3L);
+        assertEquals(Set.of(1L, 2L), trie.complete("tecl", 10));
+        assertEquals(Set.of(3L), trie.complete("tel", 10));
+
+        trie.remove("tele", 3L);
+        trie.remove("tecla", 2L);
+        assertEquals(afterFirst, trie.nodeCount());
+        assertEquals(Set.of(1L), trie.complete("t", 10));
+
+        trie.remove("teclado", 1L);
+        assertEquals(1, trie.nodeCount());
+    }
+
+    private void rebuildWith(ProductRepository.ProductLabel... rows) {
+        when(productRepository.streamActiveLabels()).thenReturn(Stream.of(rows));
+        autocomplete.rebuild();
+    }
+
+    private static List<Long> ids(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getId).toList();
+    }
+
+    private static ProductRepository.ProductLabel row(Long id, String sku, String name) {
+        return new ProductRepository.ProductLabel() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSku() {
+                return sku;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.product.ProductResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCatalogCache(meterRegistry, 100, 60);
+    }
+
+    @Test
+    void get_ShouldLoadOnceUntilEvicted() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> product(id, "SKU-" + loads.incrementAndGet()));
+        cache.get(1L, id -> product(id, "SKU-" + loads.incrementAndGet()));
+        cache.evict(1L);
+        ProductResponseDTO reloaded = cache.get(1L, id -> product(id, "SKU-" + loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+        assertEquals("SKU-2", reloaded.getSku());
+    }
+
+    @Test
+    void getBySku_ShouldIgnoreStaleMapping_WhenSkuChanged() {
+        cache.getBySku("OLD", sku -> product(1L, sku));
+        cache.evict(1L);
+        cache.get(1L, id -> product(id, "NEW"));
+
+        ProductResponseDTO result = cache.getBySku("OLD", sku -> product(2L, sku));
+
+        assertEquals(2L, result.getId());
+    }
+
+    @Test
+    void evictAll_ShouldDropEveryGivenId() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, id -> product(id, "A" + loads.incrementAndGet()));
+        cache.get(2L, id -> product(id, "B" + loads.incrementAndGet()));
+
+        cache.evictAll(List.of(1L, 2L));
+        cache.get(1L, id -> product(id, "A" + loads.incrementAndGet()));
+        cache.get(2L, id -> product(id, "B" + loads.incrementAndGet()));
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void shouldExposeHitAndMissMetrics() {
+        cache.get(1L, id -> product(id, "SKU"));
+        cache.get(1L, id -> product(id, "SKU"));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count());
+    }
+
+    private ProductResponseDTO product(Long id, String sku) {
+        return ProductResponseDTO.builder().id(id).sku(sku).name("Producto " + id).build();
+    }
+}
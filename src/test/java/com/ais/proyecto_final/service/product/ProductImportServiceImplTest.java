@@ -0,0 +1,230 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.dto.importing.ImportResultDTO;
+import com.ais.proyecto_final.dto.product.ProductRequestDTO;
+import com.ais.proyecto_final.entity.Product;
+import com.ais.proyecto_final.exceptions.InvalidImportException;
+import com.ais.proyecto_final.mappers.ProductMapper;
+import com.ais.proyecto_final.repository.ProductRepository;
+import com.ais.proyecto_final.service.importing.ImportFormat;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductImportServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private UniquenessFilters uniquenessFilters;
+
+    @Mock
+    private HotStockLedger hotStockLedger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductCatalogCache productCatalogCache;
+    private ProductImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        productCatalogCache = spy(new ProductCatalogCache(new SimpleMeterRegistry(), 100, 60));
+        importService = new ProductImportServiceImpl(productRepository, productMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), Jackson2ObjectMapperBuilder.json().build(), transactionTemplate,
+                uniquenessFilters, productCatalogCache, hotStockLedger, eventPublisher, 2, 10, 4096);
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(uniquenessFilters.skuMightExist(any())).thenReturn(true);
+        when(productMapper.dtoToEntity(any(ProductRequestDTO.class))).thenAnswer(inv -> {
+            ProductRequestDTO dto = inv.getArgument(0);
+            return Product.builder().sku(dto.getSku()).name(dto.getName()).price(dto.getPrice())
+                    .stock(dto.getStock()).active(dto.getActive()).build();
+        });
+        doAnswer(inv -> {
+            inv.<Product>getArgument(1).setName(inv.<ProductRequestDTO>getArgument(0).getName());
+            return null;
+        }).when(productMapper).updateEntityFromDto(any(), any());
+    }
+
+    @Test
+    void importProducts_ShouldCreateAndUpdateFromCsvInChunks() throws Exception {
+        Product existing = Product.builder().id(7L).sku("A-2").name("Viejo").price(BigDecimal.ONE).stock(1).active(true).build();
+        when(productRepository.findAllBySkuIn(anyCollection()))
+                .thenAnswer(inv -> inv.<List<String>>getArgument(0).contains("A-2") ? List.of(existing) : List.of());
+        String csv = """
+                sku,name,price,stock
+                A-1,Cable,9.99,10
+                A-2,Monitor nuevo,199,3
+                A-3,Ratón,15,0
+                """;
+
+        ImportResultDTO result = importService.importProducts(new StringReader(csv), ImportFormat.CSV);
+
+        assertEquals(3, result.getRows());
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getFailed());
+        assertEquals("Monitor nuevo", existing.getName());
+        // dos lotes: [A-1, A-2] y [A-3]
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(productRepository, times(2)).flush();
+        verify(productCatalogCache).evictAll(List.of(7L));
+        verify(uniquenessFilters).skuAdded("A-1");
+        verify(uniquenessFilters).skuAdded("A-3");
+        verify(eventPublisher, times(3)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void importProducts_ShouldReportInvalidRowsAndKeepGoing() throws Exception {
+        String csv = """
+                sku,name,price,stock,active
+                A-1,Cable,abc,10,true
+                A-2,,5,1,true
+                A-3,Ratón,5,1,quizá
+                A-4,Teclado,20,5,false
+                """;
+
+        ImportResultDTO result = importService.importProducts(new StringReader(csv), ImportFormat.CSV);
+
+        assertEquals(4, result.getRows());
+        assertEquals(1, result.getCreated());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 3L, 4L), result.getErrors().stream().map(e -> e.getLine()).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("price"));
+        assertEquals("A-2", result.getErrors().get(1).getKey());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("name:"));
+    }
+
+    @Test
+    void importProducts_ShouldKeepLastRowForRepeatedSkuInChunk() throws Exception {
+        String ndjson = """
+                {"sku":"A-1","name":"Primero","price":1,"stock":1,"active":true}
+                {"sku":"A-1","name":"Segundo","price":1,"stock":1,"active":true}
+                """;
+
+        ImportResultDTO result = importService.importProducts(new StringReader(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(1, result.getDuplicates());
+        assertEquals(1, result.getCreated());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> saved = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).saveAll(saved.capture());
+        assertEquals("Segundo", saved.getValue().get(0).getName());
+    }
+
+    @Test
+    void importProducts_ShouldMatchSkusWithoutCase() throws Exception {
+        Product existing = Product.builder().id(7L).sku("a-2").name("Viejo").price(BigDecimal.ONE).stock(1).active(true).build();
+        when(productRepository.findAllBySkuIn(anyCollection())).thenReturn(List.of(existing));
+        String ndjson = """
+                {"sku":"A-2","name":"Primero","price":1,"stock":1,"active":true}
+                {"sku":"a-2","name":"Segundo","price":1,"stock":1,"active":true}
+                """;
+
+        ImportResultDTO result = importService.importProducts(new StringReader(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(1, result.getDuplicates());
+        assertEquals(0, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals("Segundo", existing.getName());
+        verify(productCatalogCache).evictAll(List.of(7L));
+    }
+
+    @Test
+    void importProducts_ShouldReportMalformedJsonLines() throws Exception {
+        String ndjson = """
+                {"sku":"A-1","name":"Cable","price":1,"stock":1,"active":true}
+                {"sku":"A-2",
+                """;
+
+        ImportResultDTO result = importService.importProducts(new StringReader(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void importProducts_ShouldSkipLookup_WhenBloomFilterRulesSkusOut() throws Exception {
+        when(uniquenessFilters.skuMightExist(any())).thenReturn(false);
+        String csv = "sku,name,price,stock\nA-1,Cable,1,1\n";
+
+        importService.importProducts(new StringReader(csv), ImportFormat.CSV);
+
+        verify(productRepository, never()).findAllBySkuIn(anyCollection());
+    }
+
+    @Test
+    void importProducts_ShouldRetryRowByRow_WhenChunkIsRejected() throws Exception {
+        when(productRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Product> products = inv.getArgument(0);
+            if (products.stream().anyMatch(p -> p.getSku().equals("A-2"))) {
+                throw new DataIntegrityViolationException("idx_product_sku");
+            }
+            return products;
+        });
+        String csv = "sku,name,price,stock\nA-1,Cable,1,1\nA-2,Monitor,1,1\n";
+
+        ImportResultDTO result = importService.importProducts(new StringReader(csv), ImportFormat.CSV);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals("A-2", result.getErrors().get(0).getKey());
+        verify(uniquenessFilters).skuAdded("A-1");
+        verify(uniquenessFilters, never()).skuAdded("A-2");
+    }
+
+    @Test
+    void importProducts_ShouldCapReportedErrors() throws Exception {
+        StringBuilder csv = new StringBuilder("sku,name,price,stock\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("A-").append(i).append(",Cable,-1,1\n");
+        }
+
+        ImportResultDTO result = importService.importProducts(new StringReader(csv.toString()), ImportFormat.CSV);
+
+        assertEquals(25, result.getFailed());
+        assertEquals(10, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void importProducts_ShouldRejectCsvWithoutRequiredColumns() {
+        assertThrows(InvalidImportException.class,
+                () -> importService.importProducts(new StringReader("sku,name\nA-1,Cable\n"), ImportFormat.CSV));
+    }
+}
@@ -0,0 +1,115 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexRefresherTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductAutocomplete productAutocomplete;
+
+    private ProductIndexRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        refresher = new ProductIndexRefresher(productRepository, productNameIndex, productAutocomplete, 30000);
+        lenient().when(productNameIndex.isReady()).thenReturn(true);
+        lenient().when(productAutocomplete.isReady()).thenReturn(true);
+    }
+
+    @Test
+    void refresh_ShouldApplyChangesFromOtherInstances() {
+        when(productRepository.findLabelsUpdatedSince(any()))
+                .thenReturn(List.of(change(1L, "Teclado", true), change(2L, "Ratón", false)));
+
+        refresher.refresh();
+
+        verify(productNameIndex).onProductChanged(new ProductChangedEvent(1L, "SKU-1", "Teclado", true));
+        verify(productNameIndex).onProductChanged(new ProductChangedEvent(2L, "SKU-2", "Ratón", false));
+        verify(productAutocomplete).onProductChanged(new ProductChangedEvent(1L, "SKU-1", "Teclado", true));
+        verify(productAutocomplete).onProductChanged(new ProductChangedEvent(2L, "SKU-2", "Ratón", false));
+    }
+
+    @Test
+    void refresh_ShouldRetryFailedBuildWithBackoff() {
+        when(productRepository.findLabelsUpdatedSince(any())).thenReturn(List.of());
+        when(productAutocomplete.isReady()).thenReturn(false);
+
+        refresher.refresh();
+        // el reintento falló: el siguiente espera al menos 5 s
+        refresher.refresh();
+
+        verify(productAutocomplete, times(1)).rebuild();
+        verify(productNameIndex, never()).rebuild();
+    }
+
+    @Test
+    void refresh_ShouldOverlapReadsByTheConfiguredLag() {
+        when(productRepository.findLabelsUpdatedSince(any())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        refresher.refresh();
+        refresher.refresh();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(productRepository, times(2)).findLabelsUpdatedSince(since.capture());
+        // la segunda lectura vuelve 30 s atrás desde la primera, no desde "ahora"
+        assertFalse(since.getAllValues().get(1).isAfter(LocalDateTime.now().minusSeconds(30)));
+        assertFalse(since.getAllValues().get(1).isBefore(before.minusSeconds(30)));
+    }
+
+    @Test
+    void refresh_ShouldKeepWindow_WhenDatabaseFails() {
+        when(productRepository.findLabelsUpdatedSince(any()))
+                .thenThrow(new IllegalStateException("sin conexión"))
+                .thenReturn(List.of(change(1L, "Teclado", true)));
+
+        refresher.refresh();
+        refresher.refresh();
+
+        verify(productNameIndex).onProductChanged(new ProductChangedEvent(1L, "SKU-1", "Teclado", true));
+    }
+
+    private static ProductRepository.ProductLabelChange change(Long id, String name, boolean active) {
+        return new ProductRepository.ProductLabelChange() {
+            @Override
+            public boolean isActive() {
+                return active;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSku() {
+                return "SKU-" + id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.ais.proyecto_final.service.product;
+
+import com.ais.proyecto_final.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductNameIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ProductNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        index = new ProductNameIndex(productRepository, transactionTemplate, 2);
+    }
+
+    @Test
+    void search_ShouldBeEmpty_UntilRebuilt() {
+        assertEquals(Optional.empty(), index.search("tec"));
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsIgnoringCase() {
+        rebuildWith(row(1L, "Teclado mecánico"), row(2L, "Ratón inalámbrico"), row(3L, "Monitor 27"));
+
+        assertEquals(Optional.of(Set.of(1L)), index.search("TECLA"));
+        assertEquals(Optional.of(Set.of(1L, 2L)), index.search("ico"));
+        assertEquals(Optional.of(Set.of()), index.search("webcam"));
+    }
+
+    @Test
+    void search_ShouldIgnoreAccents_LikeTheDatabaseCollation() {
+        rebuildWith(row(1L, "Teclado Mecánico"), row(2L, "Ratón"), row(3L, "Piñata"));
+
+        assertEquals(Optional.of(Set.of(1L)), index.search("mecanico"));
+        assertEquals(Optional.of(Set.of(2L)), index.search("RATÓN"));
+        assertEquals(Optional.of(Set.of(3L)), index.search("pinata"));
+    }
+
+    @Test
+    void search_ShouldConfirmCandidates_WhenAllTrigramsMatchButNotContiguously() {
+        // "abc bcd" tiene los dos trigramas de "abcd", pero no seguidos
+        rebuildWith(row(1L, "abc bcd"), row(2L, "abcd"));
+
+        assertEquals(Optional.of(Set.of(2L)), index.search("abcd"));
+    }
+
+    @Test
+    void search_ShouldScanNames_ForShortTerms() {
+        rebuildWith(row(1L, "Cable USB"), row(2L, "Hub USB-C"), row(3L, "Monitor"));
+
+        assertEquals(Optional.of(Set.of(1L, 2L)), index.search("b"));
+    }
+
+    @Test
+    void search_ShouldGiveUp_WhenTooManyMatches() {
+        rebuildWith(row(1L, "Cable"), row(2L, "Cable largo"), row(3L, "Cable corto"));
+
+        assertEquals(Optional.empty(), index.search("cable"));
+    }
+
+    @Test
+    void onProductChanged_ShouldKeepIndexInSync() {
+        rebuildWith(row(1L, "Teclado"));
+
+        index.onProductChanged(new ProductChangedEvent(2L, "SKU-2L", "Teclado numérico", true));
+        assertEquals(Optional.of(Set.of(1L, 2L)), index.search("teclado"));
+
+        index.onProductChanged(new ProductChangedEvent(1L, "SKU-1L", "Ratón", true));
+        assertEquals(Optional.of(Set.of(2L)), index.search("teclado"));
+        assertEquals(Optional.of(Set.of(1L)), index.search("ratón"));
+
+        index.onProductChanged(new ProductChangedEvent(2L, "SKU-2L", "Teclado numérico", false));
+        assertEquals(Optional.of(Set.of()), index.search("teclado"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuild_ShouldApplyChangesThatArriveWhileStreaming() {
+        when(productRepository.streamActiveLabels()).thenAnswer(inv -> {
+            index.onProductChanged(new ProductChangedEvent(9L, "SKU-9L", "Altavoz", true));
+            return Stream.of(row(1L, "Auriculares"));
+        });
+
+        index.rebuild();
+
+        assertEquals(Optional.of(Set.of(9L)), index.search("altavoz"));
+        assertEquals(Optional.of(Set.of(1L)), index.search("auricu"));
+    }
+
+    @Test
+    void rebuild_ShouldStayUnavailable_WhenTableCannotBeRead() {
+        doThrow(new IllegalStateException("sin conexión")).when(transactionTemplate).executeWithoutResult(any());
+
+        index.rebuild();
+
+        assertEquals(Optional.empty(), index.search("tec"));
+    }
+
+    private void rebuildWith(ProductRepository.ProductLabel... rows) {
+        when(productRepository.streamActiveLabels()).thenReturn(Stream.of(rows));
+        index.rebuild();
+    }
+
+    private static ProductRepository.ProductLabel row(Long id, String name) {
+        return new ProductRepository.ProductLabel() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSku() {
+                return "SKU-" + id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -7,13 +7,18 @@ import com.ais.proyecto_final.exceptions.DuplicateResourceException;
 import com.ais.proyecto_final.exceptions.OrderBusinessException;
 import com.ais.proyecto_final.mappers.ProductMapper;
 import com.ais.proyecto_final.repository.ProductRepository;
+import com.ais.proyecto_final.service.uniqueness.UniquenessFilters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -22,7 +27,9 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +43,24 @@ public class ProductServiceImplTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private HotStockLedger hotStockLedger;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductAutocomplete productAutocomplete;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UniquenessFilters uniquenessFilters;
+
+    @Spy
+    private ProductCatalogCache productCatalogCache = new ProductCatalogCache(new SimpleMeterRegistry(), 100, 60);
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -48,6 +73,9 @@ public class ProductServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        // por defecto el filtro de Bloom no descarta nada y se consulta la base de datos como siempre
+        lenient().when(uniquenessFilters.skuMightExist(any())).thenReturn(true);
+
         productRequestDTO = ProductRequestDTO.builder()
                 .sku("SKU001")
                 .name("Test Product")
@@ -101,6 +129,43 @@ public class ProductServiceImplTest {
         assertNotNull(result);
         assertEquals(PRODUCT_ID, result.getId());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(PRODUCT_ID, "SKU001", "Test Product", true));
+    }
+
+    @Test
+    void createProduct_ShouldSkipExistsQuery_WhenBloomFilterRulesSkuOut() {
+        when(uniquenessFilters.skuMightExist("SKU001")).thenReturn(false);
+        when(productMapper.dtoToEntity(any(ProductRequestDTO.class))).thenReturn(productEntity);
+        when(productRepository.save(any(Product.class))).thenReturn(productEntity);
+        when(productMapper.toResponseDto(any(Product.class))).thenReturn(productResponseDTO);
+
+        productService.createProduct(productRequestDTO);
+
+        verify(productRepository, never()).existsBySku(anyString());
+        verify(productRepository).flush();
+        verify(uniquenessFilters).skuAdded("SKU001");
+    }
+
+    @Test
+    void createProduct_ShouldThrowDuplicate_WhenUniqueIndexRejectsSku() {
+        when(uniquenessFilters.skuMightExist("SKU001")).thenReturn(false);
+        when(productMapper.dtoToEntity(any(ProductRequestDTO.class))).thenReturn(productEntity);
+        when(productRepository.save(any(Product.class))).thenReturn(productEntity);
+        doThrow(new DataIntegrityViolationException("idx_product_sku")).when(productRepository).flush();
+
+        assertThrows(DuplicateResourceException.class, () -> productService.createProduct(productRequestDTO));
+        verify(uniquenessFilters, never()).skuAdded(anyString());
+    }
+
+    @Test
+    void createProduct_ShouldRethrow_WhenAnotherConstraintRejectsTheInsert() {
+        when(uniquenessFilters.skuMightExist("SKU001")).thenReturn(false);
+        when(productMapper.dtoToEntity(any(ProductRequestDTO.class))).thenReturn(productEntity);
+        when(productRepository.save(any(Product.class))).thenReturn(productEntity);
+        doThrow(new DataIntegrityViolationException("NULL not allowed for column \"NAME\"")).when(productRepository).flush();
+
+        assertThrows(DataIntegrityViolationException.class, () -> productService.createProduct(productRequestDTO));
+        verify(uniquenessFilters, never()).skuAdded(anyString());
     }
 
     @Test
@@ -119,18 +184,63 @@ public class ProductServiceImplTest {
     void shouldFindAllProductsUsingSpecification() {
 
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Product> productPage = new PageImpl<>(List.of(productEntity), pageable, 1);
+        Page<ProductResponseDTO> productPage = new PageImpl<>(List.of(productResponseDTO), pageable, 1);
 
-        when(productRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(productPage);
-        when(productMapper.toResponseDto(any(Product.class))).thenReturn(productResponseDTO);
+        when(productNameIndex.search("Test")).thenReturn(Optional.empty());
+        when(productRepository.findSummaries(any(Specification.class), eq(pageable), eq(false))).thenReturn(productPage);
 
-        ProductResponseDTO result = productService.findAllProducts("Test", true, pageable).getContent().get(0);
+        ProductResponseDTO result = productService.findAllProducts("Test", true, false, pageable).getContent().get(0);
 
         assertEquals(PRODUCT_ID, result.getId());
-        verify(productRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+        verify(productRepository, times(1)).findSummaries(any(Specification.class), eq(pageable), eq(false));
+        verify(productRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verifyNoInteractions(productMapper);
     }
 
+    @Test
+    void findAllProducts_ShouldQueryOnlyIndexedIds_WhenNameIndexAnswers() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<ProductResponseDTO> productPage = new PageImpl<>(List.of(productResponseDTO), pageable, 1);
+        when(productNameIndex.search("test")).thenReturn(Optional.of(Set.of(PRODUCT_ID)));
+        when(productRepository.findSummaries(any(Specification.class), eq(pageable), eq(false))).thenReturn(productPage);
 
+        Page<ProductResponseDTO> result = productService.findAllProducts("test", true, false, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        verify(productNameIndex).search("test");
+    }
+
+    @Test
+    void findAllProducts_ShouldSkipDatabase_WhenNameIndexFindsNothing() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productNameIndex.search("zzz")).thenReturn(Optional.of(Set.of()));
+
+        Page<ProductResponseDTO> result = productService.findAllProducts("zzz", true, false, pageable);
+
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findSummaries(any(Specification.class), any(Pageable.class), anyBoolean());
+    }
+
+    @Test
+    void findAllProducts_ShouldNotUseNameIndex_WhenInactiveProductsRequested() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findSummaries(any(Specification.class), eq(pageable), eq(false))).thenReturn(Page.empty(pageable));
+
+        productService.findAllProducts("Test", null, false, pageable);
+
+        verifyNoInteractions(productNameIndex);
+    }
+
+
+
+    @Test
+    void autocomplete_ShouldClampLimit() {
+        productService.autocomplete("tec", 500);
+        productService.autocomplete("tec", 0);
+
+        verify(productAutocomplete).suggest("tec", 50);
+        verify(productAutocomplete).suggest("tec", 1);
+    }
 
     @Test
     void shouldGetProductByIdSuccessfully() {
@@ -155,6 +265,52 @@ public class ProductServiceImplTest {
         assertThrows(EntityNotFoundException.class, () -> productService.getProductById(99L));
     }
 
+    @Test
+    void getProductById_ShouldServeRepeatedReadsFromCache() {
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(productEntity));
+        when(productMapper.toResponseDto(productEntity)).thenReturn(productResponseDTO);
+
+        productService.getProductById(PRODUCT_ID);
+        ProductResponseDTO result = productService.getProductById(PRODUCT_ID);
+
+        assertSame(productResponseDTO, result);
+        verify(productRepository, times(1)).findById(PRODUCT_ID);
+    }
+
+    @Test
+    void getProductById_ShouldReload_AfterStockChange() {
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(productEntity));
+        when(productMapper.toResponseDto(productEntity)).thenReturn(productResponseDTO);
+        when(productRepository.addStock(PRODUCT_ID, 1)).thenReturn(1);
+
+        productService.getProductById(PRODUCT_ID);
+        productService.returnStock(PRODUCT_ID, 1);
+        productService.getProductById(PRODUCT_ID);
+
+        verify(productRepository, times(2)).findById(PRODUCT_ID);
+    }
+
+    @Test
+    void getProductBySku_ShouldLoadOnceAndShareEntryWithIdLookup() {
+        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(productEntity));
+        when(productMapper.toResponseDto(productEntity)).thenReturn(productResponseDTO);
+
+        productService.getProductBySku("SKU001");
+        productService.getProductBySku("SKU001");
+        ProductResponseDTO byId = productService.getProductById(PRODUCT_ID);
+
+        assertSame(productResponseDTO, byId);
+        verify(productRepository, times(1)).findBySku("SKU001");
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getProductBySku_ShouldThrow_WhenNotFound() {
+        when(productRepository.findBySku("NOPE")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> productService.getProductBySku("NOPE"));
+    }
+
 
 
     @Test
@@ -243,6 +399,7 @@ public class ProductServiceImplTest {
         assertFalse(productEntity.isActive());
 
         verify(productRepository, times(1)).save(productEntity);
+        verify(productCatalogCache).evict(PRODUCT_ID);
     }
 
     @Test
@@ -256,6 +413,7 @@ public class ProductServiceImplTest {
 
 
         verify(productRepository, times(1)).delete(productEntity);
+        verify(productCatalogCache).evict(PRODUCT_ID);
     }
 
     @Test
@@ -285,23 +443,21 @@ public class ProductServiceImplTest {
     }
 
     @Test
-    void reduceStock_ShouldReduceStockSuccessfully_WhenStockIsSufficient() {
-        int initialStock = testProductStock.getStock();
-        int quantityToReduce = 3;
-
-        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(testProductStock));
-        when(productRepository.save(any(Product.class))).thenReturn(testProductStock);
+    void reduceStock_ShouldUseAtomicUpdateWithoutLoadingProduct_WhenStockIsSufficient() {
+        when(productRepository.decrementStockIfAvailable(PRODUCT_ID, 3)).thenReturn(1);
 
-        productService.reduceStock(PRODUCT_ID, quantityToReduce);
+        productService.reduceStock(PRODUCT_ID, 3);
 
-        assertEquals(initialStock - quantityToReduce, testProductStock.getStock());
-        verify(productRepository, times(1)).save(testProductStock);
+        verify(productRepository, times(1)).decrementStockIfAvailable(PRODUCT_ID, 3);
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
     void reduceStock_ShouldThrowOrderBusinessException_WhenStockIsInsufficient() {
         int quantityToReduce = 10;
 
+        when(productRepository.decrementStockIfAvailable(PRODUCT_ID, quantityToReduce)).thenReturn(0);
         when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(testProductStock));
 
         assertThrows(OrderBusinessException.class, () -> productService.reduceStock(PRODUCT_ID, quantityToReduce));
@@ -313,36 +469,152 @@ public class ProductServiceImplTest {
         testProductStock.setActive(false);
         int quantityToReduce = 1;
 
+        when(productRepository.decrementStockIfAvailable(PRODUCT_ID, quantityToReduce)).thenReturn(0);
         when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(testProductStock));
 
         assertThrows(OrderBusinessException.class, () -> productService.reduceStock(PRODUCT_ID, quantityToReduce));
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void reduceStock_ShouldThrowOrderBusinessException_WhenConcurrentOrderTookTheStock() {
+        // la lectura posterior aún ve stock, pero el UPDATE condicional ya lo rechazó
+        when(productRepository.decrementStockIfAvailable(PRODUCT_ID, 1)).thenReturn(0);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(testProductStock));
+
+        assertThrows(OrderBusinessException.class, () -> productService.reduceStock(PRODUCT_ID, 1));
+    }
+
     @Test
     void reduceStock_ShouldThrowEntityNotFoundException_WhenProductDoesNotExist() {
+        when(productRepository.decrementStockIfAvailable(anyLong(), anyInt())).thenReturn(0);
         when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
         assertThrows(EntityNotFoundException.class, () -> productService.reduceStock(99L, 1));
     }
 
     @Test
-    void returnStock_ShouldIncreaseStockSuccessfully() {
-        testProductStock.setStock(5);
-        int quantityToReturn = 8;
-        int expectedStock = 13;
+    void reserveStock_ShouldLoadAllProductsOnceAndDecrementInOneBatch() {
+        Product other = Product.builder().id(2L).sku("SKU002").name("Other").price(BigDecimal.TEN).stock(10).active(true).build();
+        Map<Long, Integer> quantities = Map.of(PRODUCT_ID, 2, 2L, 10);
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProductStock, other));
+        when(productRepository.decrementStockBatch(quantities)).thenReturn(Set.of());
+
+        Map<Long, Product> result = productService.reserveStock(quantities);
+
+        assertEquals(2, result.size());
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(productRepository, times(1)).decrementStockBatch(quantities);
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+    }
 
-        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(testProductStock));
-        when(productRepository.save(any(Product.class))).thenReturn(testProductStock);
+    @Test
+    void reserveStock_ShouldNotWrite_WhenAnyLineHasInsufficientStock() {
+        Product other = Product.builder().id(2L).sku("SKU002").name("Other").price(BigDecimal.TEN).stock(1).active(true).build();
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProductStock, other));
+
+        assertThrows(OrderBusinessException.class, () -> productService.reserveStock(Map.of(PRODUCT_ID, 2, 2L, 5)));
+
+        verify(productRepository, never()).decrementStockBatch(anyMap());
+    }
 
-        productService.returnStock(PRODUCT_ID, quantityToReturn);
+    @Test
+    void reserveStock_ShouldThrowOrderBusinessException_WhenBatchUpdateIsRejected() {
+        Map<Long, Integer> quantities = Map.of(PRODUCT_ID, 2);
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProductStock));
+        when(productRepository.decrementStockBatch(quantities)).thenReturn(Set.of(PRODUCT_ID));
 
-        assertEquals(expectedStock, testProductStock.getStock());
-        verify(productRepository, times(1)).save(testProductStock);
+        assertThrows(OrderBusinessException.class, () -> productService.reserveStock(quantities));
+    }
+
+    @Test
+    void reserveStock_ShouldThrowOrderBusinessException_WhenProductIsInactive() {
+        testProductStock.setActive(false);
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProductStock));
+
+        assertThrows(OrderBusinessException.class, () -> productService.reserveStock(Map.of(PRODUCT_ID, 1)));
+        verify(productRepository, never()).decrementStockBatch(anyMap());
+    }
+
+    @Test
+    void reserveStock_ShouldThrowEntityNotFoundException_WhenProductDoesNotExist() {
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> productService.reserveStock(Map.of(99L, 1)));
+        verify(productRepository, never()).decrementStockBatch(anyMap());
+    }
+
+    @Test
+    void returnStock_ShouldIncreaseStockAtomically() {
+        when(productRepository.addStock(PRODUCT_ID, 8)).thenReturn(1);
+
+        productService.returnStock(PRODUCT_ID, 8);
+
+        verify(productRepository, times(1)).addStock(PRODUCT_ID, 8);
+        verify(productRepository, never()).save(any(Product.class));
+        verify(hotStockLedger, never()).release(anyLong(), anyInt());
     }
 
     @Test
     void returnStock_ShouldThrowEntityNotFoundException_WhenProductDoesNotExist() {
-        when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(productRepository.addStock(anyLong(), anyInt())).thenReturn(0);
         assertThrows(EntityNotFoundException.class, () -> productService.returnStock(99L, 1));
     }
+
+    @Test
+    void returnStockBatch_ShouldIncrementAllProductsInOneBatch() {
+        Map<Long, Integer> quantities = Map.of(PRODUCT_ID, 3, 2L, 1);
+        when(productRepository.incrementStockBatch(quantities)).thenReturn(Set.of());
+        when(hotStockLedger.isHot(PRODUCT_ID)).thenReturn(false);
+        when(hotStockLedger.isHot(2L)).thenReturn(true);
+
+        productService.returnStockBatch(quantities);
+
+        verify(productRepository, times(1)).incrementStockBatch(quantities);
+        verify(productRepository, never()).addStock(anyLong(), anyInt());
+        verify(hotStockLedger, times(1)).release(2L, 1);
+        verify(hotStockLedger, never()).release(eq(PRODUCT_ID), anyInt());
+    }
+
+    @Test
+    void returnStockBatch_ShouldThrowEntityNotFoundException_WhenAProductDoesNotExist() {
+        when(productRepository.incrementStockBatch(anyMap())).thenReturn(Set.of(99L));
+
+        assertThrows(EntityNotFoundException.class, () -> productService.returnStockBatch(Map.of(99L, 1)));
+    }
+
+    @Test
+    void returnStock_ShouldReleaseLedgerUnits_WhenProductIsHot() {
+        when(productRepository.addStock(PRODUCT_ID, 2)).thenReturn(1);
+        when(hotStockLedger.isHot(PRODUCT_ID)).thenReturn(true);
+
+        productService.returnStock(PRODUCT_ID, 2);
+
+        verify(hotStockLedger, times(1)).release(PRODUCT_ID, 2);
+    }
+
+    @Test
+    void reserveStock_ShouldReserveHotProductsAgainstLedger() {
+        Product other = Product.builder().id(2L).sku("SKU002").name("Other").price(BigDecimal.TEN).stock(10).active(true).build();
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProductStock, other));
+        when(hotStockLedger.isHot(PRODUCT_ID)).thenReturn(true);
+        when(hotStockLedger.isHot(2L)).thenReturn(false);
+        when(hotStockLedger.reserve(PRODUCT_ID, 2)).thenReturn(true);
+        when(productRepository.decrementStockBatch(Map.of(2L, 1))).thenReturn(Set.of());
+
+        productService.reserveStock(Map.of(PRODUCT_ID, 2, 2L, 1));
+
+        verify(hotStockLedger, times(1)).reserve(PRODUCT_ID, 2);
+        verify(productRepository, times(1)).decrementStockBatch(Map.of(2L, 1));
+    }
+
+    @Test
+    void reserveStock_ShouldThrowOrderBusinessException_WhenLedgerIsExhausted() {
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(testProductStock));
+        when(hotStockLedger.isHot(PRODUCT_ID)).thenReturn(true);
+        when(hotStockLedger.reserve(PRODUCT_ID, 2)).thenReturn(false);
+
+        assertThrows(OrderBusinessException.class, () -> productService.reserveStock(Map.of(PRODUCT_ID, 2)));
+        verify(productRepository, never()).decrementStockBatch(anyMap());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.ais.proyecto_final.service.scheduling;
+
+import com.ais.proyecto_final.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SchedulerLockManagerTest {
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private SchedulerLockManager nodeA;
+    private SchedulerLockManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new SchedulerLockManager(schedulerLockRepository, transactionTemplate);
+        nodeB = new SchedulerLockManager(schedulerLockRepository, transactionTemplate);
+    }
+
+    @Test
+    void tryLock_ShouldGrantLockToOneNodeUntilReleased() {
+        assertTrue(nodeA.tryLock("tarea", Duration.ofMinutes(5)));
+        assertFalse(nodeB.tryLock("tarea", Duration.ofMinutes(5)));
+        assertEquals(nodeA.owner(), schedulerLockRepository.findById("tarea").orElseThrow().getLockedBy());
+
+        nodeA.unlock("tarea");
+
+        assertTrue(nodeB.tryLock("tarea", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void tryLock_ShouldTakeOverExpiredLock() {
+        assertTrue(nodeA.tryLock("tarea", Duration.ZERO));
+
+        assertTrue(nodeB.tryLock("tarea", Duration.ofMinutes(5)));
+        assertFalse(nodeA.tryLock("tarea", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void unlock_ShouldNotReleaseLockHeldByAnotherNode() {
+        assertTrue(nodeA.tryLock("tarea", Duration.ofMinutes(5)));
+
+        nodeB.unlock("tarea");
+
+        assertFalse(nodeB.tryLock("tarea", Duration.ofMinutes(5)));
+    }
+}
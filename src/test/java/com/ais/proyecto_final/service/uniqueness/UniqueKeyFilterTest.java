@@ -0,0 +1,82 @@
+package com.ais.proyecto_final.service.uniqueness;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueKeyFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UniqueKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UniqueKeyFilter("sku", 10_000, 0.01, meterRegistry);
+    }
+
+    @Test
+    void mightExist_ShouldBeTrue_UntilFirstRebuild() {
+        filter.add("SKU-1");
+
+        assertTrue(filter.mightExist("SKU-2"));
+    }
+
+    @Test
+    void mightExist_ShouldNeverGiveFalseNegatives() {
+        filter.rebuild(5_000, sink -> IntStream.range(0, 5_000).forEach(i -> sink.accept("SKU-" + i)));
+
+        IntStream.range(0, 5_000).forEach(i -> assertTrue(filter.mightExist("sku-" + i), "SKU-" + i));
+    }
+
+    @Test
+    void mightExist_ShouldKeepFalsePositivesNearConfiguredRate() {
+        filter.rebuild(5_000, sink -> IntStream.range(0, 5_000).forEach(i -> sink.accept("SKU-" + i)));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightExist("OTRO-" + i))
+                .count();
+
+        // dimensionado para 10.000 claves al 1% y con la mitad cargadas: muy por debajo del 2%
+        assertTrue(falsePositives < 200, "falsos positivos: " + falsePositives);
+        assertEquals(10_000 - falsePositives,
+                meterRegistry.get("uniqueness.filter.skipped").tag("key", "sku").counter().count());
+        assertTrue(meterRegistry.get("uniqueness.filter.false.positive.rate").gauge().value() < 0.01);
+        assertTrue(meterRegistry.get("uniqueness.filter.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void rebuild_ShouldKeepKeysAddedWhileLoading() {
+        filter.rebuild(1, sink -> {
+            sink.accept("SKU-1");
+            filter.add("SKU-NUEVO");
+        });
+
+        assertTrue(filter.mightExist("SKU-NUEVO"));
+        assertTrue(filter.mightExist("SKU-1"));
+    }
+
+    @Test
+    void rebuild_ShouldDropRemovedKeys() {
+        filter.rebuild(2, sink -> List.of("SKU-1", "SKU-2").forEach(sink));
+        filter.rebuild(1, sink -> sink.accept("SKU-1"));
+
+        assertFalse(filter.mightExist("SKU-2"));
+    }
+
+    @Test
+    void rebuild_ShouldKeepPreviousFilter_WhenLoadingFails() {
+        filter.rebuild(1, sink -> sink.accept("SKU-1"));
+
+        assertThrows(IllegalStateException.class, () -> filter.rebuild(1, sink -> {
+            throw new IllegalStateException("sin conexión");
+        }));
+
+        assertTrue(filter.mightExist("SKU-1"));
+    }
+}